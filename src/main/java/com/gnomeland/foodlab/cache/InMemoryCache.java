@@ -1,5 +1,6 @@
 package com.gnomeland.foodlab.cache;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -58,6 +59,15 @@ public class InMemoryCache {
         }
     }
 
+    public void removeAll(Collection<String> keys) {
+        synchronized (cacheMap) {
+            int before = cacheMap.size();
+            cacheMap.keySet().removeAll(keys);
+            logger.info("Удалено из кэша {} записей по {} ключам", before - cacheMap.size(),
+                    keys.size());
+        }
+    }
+
     public void removeAll() {
         synchronized (cacheMap) {
             cacheMap.clear();
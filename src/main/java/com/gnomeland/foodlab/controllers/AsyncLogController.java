@@ -7,9 +7,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Pattern;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -21,6 +22,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Validated
 @RestController
@@ -28,6 +31,8 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Log Controller Async", description = "Allows you to work with logs asynchronously")
 public class AsyncLogController {
 
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
     private final AsyncLogService asyncLogService;
 
     public AsyncLogController(AsyncLogService asyncLogService) {
@@ -38,6 +43,8 @@ public class AsyncLogController {
             description = "Starts the asynchronous process of creating a log file.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "202", description = "The process is running"),
+        @ApiResponse(responseCode = "429",
+                description = "The export queue or the log spool is full"),
     })
     @PostMapping("/async")
     public ResponseEntity<Map<String, String>> requestLogsAsync(
@@ -48,6 +55,27 @@ public class AsyncLogController {
         return ResponseEntity.accepted().body(Map.of("taskId", taskId));
     }
 
+    @Operation(summary = "Creating a log file for a period",
+            description = "Starts the asynchronous export of the logs from 'from' to 'to' "
+                    + "inclusive, merged in chronological order.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "The process is running"),
+        @ApiResponse(responseCode = "400", description = "The period is invalid"),
+        @ApiResponse(responseCode = "429",
+                description = "The export queue or the log spool is full"),
+    })
+    @PostMapping("/async/range")
+    public ResponseEntity<Map<String, String>> requestLogRangeAsync(
+            @RequestParam
+            @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in format yyyy-MM-dd")
+            String from,
+            @RequestParam
+            @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in format yyyy-MM-dd")
+            String to) {
+        String taskId = asyncLogService.createLogTask(from, to);
+        return ResponseEntity.accepted().body(Map.of("taskId", taskId));
+    }
+
     @Operation(summary = "Getting a status",
             description = "Displays the status of the current process,"
                     + " if it has completed, displays the time until it is deleted.")
@@ -65,27 +93,38 @@ public class AsyncLogController {
     }
 
     @Operation(summary = "Getting the log file",
-            description = "Returns the log file")
+            description = "Returns the log file. Supports Range, If-Range and conditional "
+                    + "requests, so an interrupted download can be resumed.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "202", description = "The process is running"),
         @ApiResponse(responseCode = "204",
                 description = "Logs for the proposed date were not found"),
+        @ApiResponse(responseCode = "206", description = "The requested part of the file"),
+        @ApiResponse(responseCode = "304", description = "The file has not changed"),
         @ApiResponse(responseCode = "404", description = "There is no such process."),
+        @ApiResponse(responseCode = "416", description = "The range is outside the file"),
+        @ApiResponse(responseCode = "429",
+                description = "The log reader was too busy to build the file"),
+        @ApiResponse(responseCode = "500", description = "Building the file failed"),
+        @ApiResponse(responseCode = "507",
+                description = "The file did not fit into the log spool"),
     })
     @GetMapping("/async/file/{taskId}")
-    public ResponseEntity<ByteArrayResource> getLogFile(@PathVariable String taskId) {
+    public ResponseEntity<StreamingResponseBody> getLogFile(@PathVariable String taskId,
+                                                            WebRequest request)
+            throws IOException {
         try {
             LogFileResult result = asyncLogService.getLogFile(taskId);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=" + result.getFilename())
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .contentLength(result.getContentLength())
-                    .body(result.getResource());
-        } catch (NoSuchElementException ex) {
+            if (result.file() == null) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=" + result.getFilename());
+            headers.setContentType(result.compressed() ? GZIP : MediaType.TEXT_PLAIN);
+            return LogFileResponses.serve(result.file(), headers, request);
+        } catch (NoSuchElementException | NoSuchFileException ex) {
             return ResponseEntity.notFound().build();
-        } catch (IllegalStateException ex) {
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
     }
 }
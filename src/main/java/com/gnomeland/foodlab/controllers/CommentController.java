@@ -1,6 +1,7 @@
 package com.gnomeland.foodlab.controllers;
 
 import com.gnomeland.foodlab.dto.CommentDto;
+import com.gnomeland.foodlab.dto.CommentWriteStatusDto;
 import com.gnomeland.foodlab.service.CommentService;
 import com.gnomeland.foodlab.validation.CommentValidator;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,9 +35,12 @@ public class CommentController {
     @Operation(summary = "Adding a new comment", description = "Creates a new comment")
     @ApiResponses(value = { @ApiResponse(responseCode = "200",
             description = "Comment added successfully"),
+        @ApiResponse(responseCode = "202",
+                description = "Comment queued for writing, the body is its tracking ID"),
         @ApiResponse(responseCode = "400", description = "Invalid request"),
         @ApiResponse(responseCode = "404",
-                description = "The user or recipe with this ID was not found.")
+                description = "The user or recipe with this ID was not found."),
+        @ApiResponse(responseCode = "429", description = "The comment queue is full")
     })
     @PostMapping
     public ResponseEntity<String> addComment(@RequestBody CommentDto commentDto) {
@@ -44,6 +48,17 @@ public class CommentController {
         return commentService.addComment(commentDto);
     }
 
+    @Operation(summary = "Status of a queued comment",
+            description = "Returns the write status of a comment accepted with 202")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Status found"),
+        @ApiResponse(responseCode = "404", description = "Tracking ID not found or outdated")
+    })
+    @GetMapping("/pending/{trackingId}")
+    public ResponseEntity<CommentWriteStatusDto> getCommentWriteStatus(
+            @PathVariable String trackingId) {
+        return ResponseEntity.ok(commentService.getCommentWriteStatus(trackingId));
+    }
+
     @Operation(summary = "Output of all comments", description = "Returns all comments")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Comments found"),
         @ApiResponse(responseCode = "404", description = "There are no comments")
@@ -1,13 +1,19 @@
 package com.gnomeland.foodlab.controllers;
 
+import com.gnomeland.foodlab.dto.ImportReportDto;
 import com.gnomeland.foodlab.dto.IngredientDto;
 import com.gnomeland.foodlab.dto.RecipeIngredientDto;
+import com.gnomeland.foodlab.service.IngredientImportService;
 import com.gnomeland.foodlab.service.IngredientService;
 import com.gnomeland.foodlab.validation.IngredientValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,23 +34,28 @@ import org.springframework.web.bind.annotation.RestController;
 public class IngredientController {
 
     private final IngredientService ingredientService;
+    private final IngredientImportService ingredientImportService;
 
     @Autowired
-    public IngredientController(IngredientService ingredientService) {
+    public IngredientController(IngredientService ingredientService,
+                                IngredientImportService ingredientImportService) {
         this.ingredientService = ingredientService;
+        this.ingredientImportService = ingredientImportService;
     }
 
     @Operation(summary = "Ingredient search by filter",
-            description = "Returns all ingredients filtered by name if provided")
+            description = "Returns all ingredients filtered by name if provided; with fuzzy=true "
+                    + "names within two typos are matched, closest first")
     @ApiResponses(value = { @ApiResponse(responseCode = "200",
             description = "The found ingredients are returned"), @ApiResponse(responseCode = "404",
             description = "No ingredients found"),
     })
     @GetMapping
     public ResponseEntity<List<IngredientDto>> getIngredients(
-            @RequestParam(name = "name", required = false) final String name
+            @RequestParam(name = "name", required = false) final String name,
+            @RequestParam(name = "fuzzy", defaultValue = "false") final boolean fuzzy
     ) {
-        List<IngredientDto> ingredients = ingredientService.getIngredients(name);
+        List<IngredientDto> ingredients = ingredientService.getIngredients(name, fuzzy);
         return ResponseEntity.ok(ingredients);
     }
 
@@ -87,6 +98,21 @@ public class IngredientController {
         return ResponseEntity.status(201).body(createdIngredient);
     }
 
+    @Operation(summary = "Bulk CSV ingredient import",
+            description = "Upserts ingredients from CSV lines name,proteins,fats,carbohydrates "
+                    + "(optional header); names are matched case-insensitively and errors "
+                    + "refer to CSV line numbers")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished, see the report")
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReportDto> importIngredients(HttpServletRequest request)
+            throws IOException {
+        ImportReportDto report = ingredientImportService.importCsv(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        return ResponseEntity.ok(report);
+    }
+
     @Operation(summary = "Updating an ingredient",
             description = "Fully updates all ingredient information")
     @ApiResponses(value = { @ApiResponse(responseCode = "200",
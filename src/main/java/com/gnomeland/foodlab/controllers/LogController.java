@@ -1,34 +1,37 @@
 package com.gnomeland.foodlab.controllers;
 
+import com.gnomeland.foodlab.service.LogEntryFilter;
+import com.gnomeland.foodlab.service.LogQueryService;
+import com.gnomeland.foodlab.service.LogQueryService.LogQuery;
+import com.gnomeland.foodlab.service.LogRangeReader;
+import com.gnomeland.foodlab.service.LogRangeReader.LogRange;
+import com.gnomeland.foodlab.service.LogTailService;
+import com.gnomeland.foodlab.service.LogTailService.Subscription;
+import com.gnomeland.foodlab.service.LogTailService.TailListener;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -36,106 +39,183 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Log Controller", description = "Позволяет получать логи на введенную дату")
 public class LogController {
 
-    private static final String LOG_FILE_PATH = "logs/application.log"; // основной лог файл
+    private final LogRangeReader logRangeReader;
+    private final LogQueryService logQueryService;
+    private final LogTailService logTailService;
+    private final long tailTimeoutMillis;
+
+    @Autowired
+    public LogController(LogRangeReader logRangeReader, LogQueryService logQueryService,
+                         LogTailService logTailService,
+                         @Value("${logs.tail.timeout-minutes:30}") long tailTimeoutMinutes) {
+        this.logRangeReader = logRangeReader;
+        this.logQueryService = logQueryService;
+        this.logTailService = logTailService;
+        this.tailTimeoutMillis = tailTimeoutMinutes * 60 * 1000;
+    }
 
     @Operation(summary = "Получение информации о логах",
-            description = "Возвращает информацию о логах по дате")
+            description = "Возвращает информацию о логах по дате; прошедший день, целиком "
+                    + "лежащий в одном архиве, отдаётся как есть с Content-Encoding: gzip, "
+                    + "если клиент его принимает; такой ответ поддерживает Range и ETag")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Логи найдены"),
+        @ApiResponse(responseCode = "206", description = "Часть архива по заголовку Range"),
+        @ApiResponse(responseCode = "304", description = "Архив не изменился"),
         @ApiResponse(responseCode = "404", description = "Логи за предложенную дату не найдены")
     })
     @GetMapping("/{date}")
-    public ResponseEntity<Resource> getLogsByDate(@PathVariable String date) throws IOException {
-        List<String> logs = new ArrayList<>();
-
-        if (isToday(date)) {
-            File logFile = new File(LOG_FILE_PATH);
-            if (logFile.exists()) {
-                logs.addAll(readLogsFromFile(logFile));
-            }
-        }
-
-        File archiveLogFile = getArchiveLogFile(date);
-        if (archiveLogFile.exists()) {
-            logs.addAll(readLogsFromGzip(archiveLogFile));
-        }
-
-        List<String> filteredLogs = filterLogsByDate(logs, date);
-
-        if (filteredLogs.isEmpty()) {
+    public ResponseEntity<StreamingResponseBody> getLogsByDate(
+            @PathVariable String date,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            WebRequest request) throws IOException {
+        LocalDate day = parseDate(date);
+        if (day == null) {
             return ResponseEntity.notFound().build();
         }
+        String filename = "logs-" + sanitizeFilename(date) + ".log";
+        if (acceptsGzip(acceptEncoding)) {
+            Optional<Path> archive = logRangeReader.findWholeDayArchive(day);
+            if (archive.isPresent()) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.TEXT_PLAIN);
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + filename + "\"");
+                // Байты архива уходят клиенту без распаковки, разбора и копий в куче
+                return LogFileResponses.serve(archive.get(), headers, request);
+            }
+        }
+        return streamLogs(List.of(day), filename);
+    }
 
-        File tempLogFile = createTempLogFile(filteredLogs, date);
-
-        return createFileResponse(tempLogFile);
+    @Operation(summary = "Получение логов за период",
+            description = "Возвращает логи с from по to включительно в хронологическом порядке")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Логи найдены"),
+        @ApiResponse(responseCode = "400", description = "Неверный период"),
+        @ApiResponse(responseCode = "404", description = "Логи за период не найдены"),
+        @ApiResponse(responseCode = "429", description = "Слишком много запросов логов")
+    })
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getLogsByRange(@RequestParam String from,
+                                                                @RequestParam String to)
+            throws IOException {
+        List<LocalDate> days = logRangeReader.parseRange(from, to);
+        return streamLogs(days, "logs-" + days.getFirst() + "_" + days.getLast() + ".log");
     }
 
-    private boolean isToday(String date) {
-        String today = LocalDate.now().toString();
-        return today.equals(date);
+    @Operation(summary = "Поиск по логам",
+            description = "Возвращает записи логов с from (включительно) по to (не включая), "
+                    + "отобранные по уровню (не ниже указанного), части имени логгера, потоку "
+                    + "и регулярному выражению; не больше limit записей")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Поиск выполнен"),
+        @ApiResponse(responseCode = "400", description = "Неверные параметры поиска")
+    })
+    @GetMapping("/query")
+    public ResponseEntity<StreamingResponseBody> queryLogs(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
+            @RequestParam(required = false) String thread,
+            @RequestParam(required = false) String regex,
+            @RequestParam(defaultValue = "1000") int limit) {
+        LogQuery query = logQueryService.parseQuery(from, to, level, logger, thread, regex,
+                limit);
+        StreamingResponseBody body = outputStream -> logQueryService.query(query, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(body);
     }
 
-    private List<String> readLogsFromFile(File logFile) throws IOException {
-        List<String> logs = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
+    @Operation(summary = "Логи в реальном времени",
+            description = "Поток Server-Sent Events с новыми строками логов, отобранными по "
+                    + "уровню (не ниже указанного), части имени логгера и потоку; один "
+                    + "читатель файла обслуживает всех зрителей")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Поток открыт"),
+        @ApiResponse(responseCode = "400", description = "Неверные фильтры"),
+        @ApiResponse(responseCode = "429", description = "Слишком много зрителей логов")
+    })
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailLogs(@RequestParam(required = false) String level,
+                               @RequestParam(required = false) String logger,
+                               @RequestParam(required = false) String thread) {
+        LogEntryFilter filter = logQueryService.parseFilter(level, logger, thread, null);
+        SseEmitter emitter = new SseEmitter(tailTimeoutMillis);
+        Subscription subscription = logTailService.subscribe(filter, new TailListener() {
+            @Override
+            public void onLine(String line) throws IOException {
+                emitter.send(SseEmitter.event().data(line));
             }
-        }
-        return logs;
-    }
 
-    private List<String> readLogsFromGzip(File gzipFile) throws IOException {
-        List<String> logs = new ArrayList<>();
-        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new FileInputStream(gzipFile));
-             BufferedReader reader = new BufferedReader(new InputStreamReader(
-                     gzipInputStream, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
+            @Override
+            public void onHeartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("ping"));
             }
-        }
-        return logs;
-    }
 
-    private List<String> filterLogsByDate(List<String> logs, String date) {
-        List<String> filteredLogs = new ArrayList<>();
-        for (String log : logs) {
-            if (log.startsWith(date) && !log.contains("INFO - Вход в метод контроллера")) {
-                filteredLogs.add(log);
+            @Override
+            public void onClose() {
+                emitter.complete();
             }
-        }
-        return filteredLogs;
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
     }
 
-    private File getArchiveLogFile(String date) {
-        String archiveLogFilePath = LOG_FILE_PATH + "." + date + ".0.gz";
-        return new File(archiveLogFilePath);
-    }
+    /**
+     * Архивы дней распаковываются параллельно, а ответ пишется по мере готовности
+     * в хронологическом порядке; в памяти лишь несколько блоков, временных файлов нет.
+     */
+    private ResponseEntity<StreamingResponseBody> streamLogs(List<LocalDate> days,
+                                                             String filename)
+            throws IOException {
+        LogRange range = logRangeReader.open(days);
+        if (range.isEmpty()) {
+            range.close();
+            return ResponseEntity.notFound().build();
+        }
 
-    private File createTempLogFile(List<String> logs, String date) throws IOException {
-        String safeDate = sanitizeFilename(date);
+        StreamingResponseBody body = outputStream -> {
+            try (range) {
+                range.writeTo(outputStream);
+            }
+        };
 
-        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize();
+        // Ответ собирается на лету, продолжить его с середины нельзя
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.ACCEPT_RANGES, "none")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
 
-        if (!Files.isDirectory(tempDir) || Files.isSymbolicLink(tempDir)) {
-            throw new IOException("Unsafe temporary directory: " + tempDir);
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
         }
-
-        Path tempFile = Files.createTempFile(tempDir, "logs-" + safeDate + "-", ".log");
-
-        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8,
-                StandardOpenOption.WRITE)) {
-            for (String log : logs) {
-                writer.write(log);
-                writer.newLine();
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1
+                    && parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused) {
+                return true;
             }
         }
+        return false;
+    }
 
-        tempFile.toFile().deleteOnExit();
-
-        return tempFile.toFile();
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     private String sanitizeFilename(String filename) {
@@ -145,15 +225,4 @@ public class LogController {
 
         return filename.replaceAll("[^a-zA-Z0-9.-]", "_");
     }
-
-    private ResponseEntity<Resource> createFileResponse(File file) throws IOException {
-        Path path = Paths.get(file.getAbsolutePath());
-        Resource resource = new UrlResource(path.toUri());
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.TEXT_PLAIN)
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
-    }
 }
@@ -0,0 +1,130 @@
+package com.gnomeland.foodlab.controllers;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Sends a finished log file that no longer changes (an archive or an export in the spool)
+ * with an ETag and Last-Modified, so interrupted downloads can be resumed with
+ * {@code Range}/{@code If-Range} and parts of a file can be fetched in parallel. One range
+ * per request is served; a request with several ranges gets the whole file.
+ */
+final class LogFileResponses {
+
+    private LogFileResponses() {
+    }
+
+    /**
+     * Builds the response for {@code file}; {@code headers} (type, disposition, encoding) are
+     * added to it. Returns {@code null} when the client's copy is still current, in which
+     * case {@code request} has already been answered with 304.
+     */
+    static ResponseEntity<StreamingResponseBody> serve(Path file, HttpHeaders headers,
+                                                       WebRequest request) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified)
+                    + "\"";
+            if (request.checkNotModified(eTag, lastModified)) {
+                channel.close();
+                return null;
+            }
+
+            HttpHeaders response = new HttpHeaders();
+            response.putAll(headers);
+            response.setETag(eTag);
+            response.setLastModified(lastModified);
+            response.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            HttpRange range = requestedRange(request, eTag, lastModified);
+            long start = 0;
+            long end = size;
+            HttpStatus status = HttpStatus.OK;
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(size);
+                    end = range.getRangeEnd(size) + 1;
+                } catch (IllegalArgumentException e) {
+                    channel.close();
+                    response.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .headers(response).build();
+                }
+                status = HttpStatus.PARTIAL_CONTENT;
+                response.set(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+            response.setContentLength(end - start);
+
+            long from = start;
+            long to = end;
+            StreamingResponseBody body = outputStream -> {
+                try (channel) {
+                    WritableByteChannel target = Channels.newChannel(outputStream);
+                    long position = from;
+                    while (position < to) {
+                        long sent = channel.transferTo(position, to - position, target);
+                        if (sent <= 0) {
+                            break;
+                        }
+                        position += sent;
+                    }
+                }
+            };
+            return ResponseEntity.status(status).headers(response).body(body);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The single range to send, or {@code null} for the whole file: when there is no valid
+     * {@code Range}, several ranges, or an {@code If-Range} for another version of the file.
+     */
+    private static HttpRange requestedRange(WebRequest request, String eTag,
+                                            long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag) && !sameSecond(ifRange, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.getFirst() : null;
+        } catch (IllegalArgumentException e) {
+            // Некорректный Range по RFC 9110 игнорируется
+            return null;
+        }
+    }
+
+    private static boolean sameSecond(String httpDate, long lastModified) {
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(httpDate,
+                    DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
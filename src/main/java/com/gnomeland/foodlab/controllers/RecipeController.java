@@ -1,18 +1,25 @@
 package com.gnomeland.foodlab.controllers;
 
 import com.gnomeland.foodlab.dto.CommentDto;
+import com.gnomeland.foodlab.dto.ImportReportDto;
 import com.gnomeland.foodlab.dto.RecipeDto;
 import com.gnomeland.foodlab.dto.RecipeIngredientDto;
+import com.gnomeland.foodlab.dto.RecipeSearchResultDto;
+import com.gnomeland.foodlab.dto.ScoredRecipeDto;
 import com.gnomeland.foodlab.dto.UserDto;
 import com.gnomeland.foodlab.repository.RecipeRepository;
+import com.gnomeland.foodlab.service.RecipeImportService;
 import com.gnomeland.foodlab.service.RecipeService;
 import com.gnomeland.foodlab.validation.RecipeValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,11 +39,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class RecipeController {
     private final RecipeService recipeService;
     private final RecipeRepository recipeRepository;
+    private final RecipeImportService recipeImportService;
 
     @Autowired
-    public RecipeController(RecipeService recipeService, RecipeRepository recipeRepository) {
+    public RecipeController(RecipeService recipeService, RecipeRepository recipeRepository,
+                            RecipeImportService recipeImportService) {
         this.recipeService = recipeService;
         this.recipeRepository = recipeRepository;
+        this.recipeImportService = recipeImportService;
     }
 
     @Operation(summary = "Search for a recipe by filter",
@@ -54,6 +64,40 @@ public class RecipeController {
                 : ResponseEntity.ok(recipes);
     }
 
+    @Operation(summary = "Faceted recipe search",
+            description = "Filters recipes by name, ingredients, preparation time and protein "
+                    + "buckets and returns hits together with counts for every facet value")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200",
+            description = "Search results returned"), @ApiResponse(responseCode = "400",
+            description = "Invalid bucket or limit")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<RecipeSearchResultDto> searchRecipes(
+            @RequestParam(name = "name", required = false) final String name,
+            @RequestParam(name = "ingredientId", required = false)
+            final List<Integer> ingredientIds,
+            @RequestParam(name = "preparationTime", required = false)
+            final String preparationTime,
+            @RequestParam(name = "protein", required = false) final String protein,
+            @RequestParam(name = "limit", defaultValue = "20") final int limit) {
+        RecipeSearchResultDto result = recipeService.searchRecipes(name, ingredientIds,
+                preparationTime, protein, limit);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Getting trending recipes",
+            description = "Returns recipes ranked by time-decayed views, saves and comments")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200",
+            description = "Trending recipes returned"), @ApiResponse(responseCode = "400",
+            description = "Invalid limit")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<ScoredRecipeDto>> getTrendingRecipes(
+            @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        List<ScoredRecipeDto> recipes = recipeService.getTrendingRecipes(limit);
+        return ResponseEntity.ok(recipes);
+    }
+
     @Operation(summary = "Getting a recipe by ID", description = "Returns the recipe by ID")
     @ApiResponses(value = { @ApiResponse(responseCode = "200",
             description = "The recipe is found"), @ApiResponse(responseCode = "404",
@@ -77,6 +121,21 @@ public class RecipeController {
         return ResponseEntity.ok(comments);
     }
 
+    @Operation(summary = "Getting similar recipes",
+            description = "Recipes ranked by ingredient overlap, scored by Jaccard similarity")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200",
+            description = "Similar recipes returned"), @ApiResponse(responseCode = "400",
+            description = "Invalid limit"), @ApiResponse(responseCode = "404",
+            description = "A recipe with this ID was not found.")
+    })
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ScoredRecipeDto>> getSimilarRecipes(
+            @PathVariable final Integer id,
+            @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        List<ScoredRecipeDto> recipes = recipeService.getSimilarRecipes(id, limit);
+        return ResponseEntity.ok(recipes);
+    }
+
     @Operation(summary = "Adding a new recipe", description = "Creates a new recipe")
     @ApiResponses(value = { @ApiResponse(responseCode = "201",
             description = "The recipe was added successfully"), @ApiResponse(responseCode = "400",
@@ -90,10 +149,12 @@ public class RecipeController {
         return ResponseEntity.status(201).body(newRecipe);
     }
 
-    @Operation(summary = "Bulk add recipes", description = "Adds multiple recipes at once")
+    @Operation(summary = "Bulk add recipes",
+            description = "Adds multiple recipes at once together with their recipeIngredients")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Recipes added successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid request data")
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "404", description = "A referenced ingredient was not found")
     })
     @PostMapping("/bulk")
     public ResponseEntity<List<RecipeDto>> addRecipesBulk(
@@ -107,6 +168,20 @@ public class RecipeController {
         return ResponseEntity.status(201).body(createdRecipes);
     }
 
+    @Operation(summary = "Streaming recipe import",
+            description = "Reads a JSON array of recipes element by element, validates each one "
+                    + "and commits them in chunks; returns counts and per-row errors")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished, see the report"),
+        @ApiResponse(responseCode = "400", description = "The body is not a JSON array")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReportDto> importRecipes(HttpServletRequest request)
+            throws IOException {
+        ImportReportDto report = recipeImportService.importRecipes(request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
     @Operation(summary = "Deleting a recipe by its ID", description = "Delete a recipe with an ID")
     @ApiResponses(value = { @ApiResponse(responseCode = "200",
             description = "The recipe was deleted successfully"), @ApiResponse(responseCode = "404",
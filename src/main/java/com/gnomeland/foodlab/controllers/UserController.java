@@ -1,6 +1,7 @@
 package com.gnomeland.foodlab.controllers;
 
 import com.gnomeland.foodlab.dto.CommentDto;
+import com.gnomeland.foodlab.dto.ScoredRecipeDto;
 import com.gnomeland.foodlab.dto.UserDto;
 import com.gnomeland.foodlab.service.UserService;
 import com.gnomeland.foodlab.validation.UserValidator;
@@ -72,6 +73,21 @@ public class UserController {
         return ResponseEntity.ok(comments);
     }
 
+    @Operation(summary = "Getting recipe recommendations for a user",
+            description = "Returns recipes often saved together with the user's saved recipes")
+    @ApiResponses(value = { @ApiResponse(responseCode = "200",
+            description = "Recommendations returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit"),
+        @ApiResponse(responseCode = "404", description = "The user with this ID was not found.")
+    })
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<ScoredRecipeDto>> getRecommendations(
+            @PathVariable final Integer id,
+            @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        List<ScoredRecipeDto> recommendations = userService.getRecommendations(id, limit);
+        return ResponseEntity.ok(recommendations);
+    }
+
     @Operation(summary = "Adding a new user",
             description = "Adds a new user")
     @ApiResponses(value = { @ApiResponse(responseCode = "201",
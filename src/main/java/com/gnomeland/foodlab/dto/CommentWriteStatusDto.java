@@ -0,0 +1,14 @@
+package com.gnomeland.foodlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class CommentWriteStatusDto {
+    private String trackingId;
+    private String status;
+    private String message;
+}
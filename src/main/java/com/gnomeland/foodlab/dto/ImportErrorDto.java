@@ -0,0 +1,15 @@
+package com.gnomeland.foodlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class ImportErrorDto {
+    private Long row;
+    // Последняя строка, если ошибка относится к целому диапазону строк
+    private Long lastRow;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.gnomeland.foodlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class ImportReportDto {
+    private long processed;
+    private long imported;
+    private long failed;
+    private boolean completed;
+    private List<ImportErrorDto> errors = new ArrayList<>();
+}
@@ -13,6 +13,7 @@ public class RecipeDto {
     private Integer id;
     private String name;
     private Duration preparationTime;
+    private Integer saveCount;
     private List<UserDto> users;
     private List<RecipeIngredientDto> recipeIngredients;
     private List<CommentDto> comments;
@@ -0,0 +1,18 @@
+package com.gnomeland.foodlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class RecipeSearchResultDto {
+    private Integer total;
+    private List<RecipeDto> recipes;
+    private Map<Integer, Integer> ingredientCounts;
+    private Map<String, Integer> preparationTimeCounts;
+    private Map<String, Integer> proteinCounts;
+}
@@ -0,0 +1,16 @@
+package com.gnomeland.foodlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class ScoredRecipeDto {
+    private Integer id;
+    private String name;
+    private Duration preparationTime;
+    private Double score;
+}
@@ -0,0 +1,7 @@
+package com.gnomeland.foodlab.exception;
+
+public class LogSpoolFullException extends RuntimeException {
+    public LogSpoolFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.gnomeland.foodlab.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
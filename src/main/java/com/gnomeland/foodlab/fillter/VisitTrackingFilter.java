@@ -1,5 +1,6 @@
 package com.gnomeland.foodlab.fillter;
 
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
 import com.gnomeland.foodlab.service.VisitService;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
@@ -7,7 +8,10 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -15,11 +19,15 @@ import org.springframework.stereotype.Component;
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class VisitTrackingFilter implements Filter {
+    private static final Pattern RECIPE_DETAIL_PATH = Pattern.compile("^/api/recipes/(\\d{1,9})$");
 
     private final VisitService visitService;
+    private final TrendingRecipeTracker trendingRecipeTracker;
 
-    public VisitTrackingFilter(VisitService visitService) {
+    public VisitTrackingFilter(VisitService visitService,
+                               TrendingRecipeTracker trendingRecipeTracker) {
         this.visitService = visitService;
+        this.trendingRecipeTracker = trendingRecipeTracker;
     }
 
     @Override
@@ -29,6 +37,20 @@ public class VisitTrackingFilter implements Filter {
         String uri = httpRequest.getRequestURI();
         visitService.recordVisit(uri);
         chain.doFilter(request, response);
+
+        // Просмотр засчитывается только для найденного рецепта, иначе перебор id
+        // заполнил бы трекер несуществующими рецептами
+        if ("GET".equals(httpRequest.getMethod())
+                && isSuccessful((HttpServletResponse) response)) {
+            Matcher matcher = RECIPE_DETAIL_PATH.matcher(uri);
+            if (matcher.matches()) {
+                trendingRecipeTracker.recordView(Integer.parseInt(matcher.group(1)));
+            }
+        }
+    }
+
+    private static boolean isSuccessful(HttpServletResponse response) {
+        return response.getStatus() >= 200 && response.getStatus() < 300;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.gnomeland.foodlab.index;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never returns {@code false}
+ * for a value that was put; inserting more values than planned only raises the
+ * false-positive rate. Not thread-safe; callers guard it.
+ */
+public class BloomFilter {
+    private static final int WORD_BITS = 64;
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int expected = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        this.words = new long[(int) Math.max(1, (bits + WORD_BITS - 1) / WORD_BITS)];
+        this.bitCount = (long) words.length * WORD_BITS;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            words[(int) (bit / WORD_BITS)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            if ((words[(int) (bit / WORD_BITS)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units followed by the SplitMix64 finalizer, so both
+     * halves of the result are well mixed for double hashing.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
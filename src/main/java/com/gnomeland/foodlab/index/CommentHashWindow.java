@@ -0,0 +1,90 @@
+package com.gnomeland.foodlab.index;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recent comment hashes per recipe, so bursts of identical comments are rejected without
+ * a query. Each recipe keeps its last {@link #WINDOW_SIZE} (user, hash) pairs; only the
+ * {@link #MAX_RECIPES} most recently commented recipes are tracked. A miss says nothing,
+ * the caller then checks the indexed {@code text_hash} column.
+ */
+@Component
+public class CommentHashWindow {
+    public static final int WINDOW_SIZE = 256;
+    public static final int MAX_RECIPES = 10_000;
+
+    private final Map<Integer, RecipeWindow> windows =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, RecipeWindow> eldest) {
+                    return size() > MAX_RECIPES;
+                }
+            };
+
+    /**
+     * First 64 bits of the MD5 of the UTF-8 text, big-endian. data.sql fills old rows with
+     * the same value via {@code ('x' || substr(md5(text), 1, 16))::bit(64)::bigint}.
+     */
+    public static long contentHash(String text) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5")
+                    .digest((text == null ? "" : text).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+
+    public synchronized boolean contains(Integer recipeId, Integer userId, long hash) {
+        RecipeWindow window = windows.get(recipeId);
+        return window != null && window.entries.contains(new Entry(userId, hash));
+    }
+
+    public synchronized void add(Integer recipeId, Integer userId, long hash) {
+        windows.computeIfAbsent(recipeId, id -> new RecipeWindow()).add(new Entry(userId, hash));
+    }
+
+    public synchronized void remove(Integer recipeId, Integer userId, long hash) {
+        RecipeWindow window = windows.get(recipeId);
+        if (window != null) {
+            Entry entry = new Entry(userId, hash);
+            window.entries.remove(entry);
+            window.order.remove(entry);
+        }
+    }
+
+    public synchronized void removeRecipe(Integer recipeId) {
+        windows.remove(recipeId);
+    }
+
+    private record Entry(Integer userId, long hash) {
+    }
+
+    private static final class RecipeWindow {
+        private final Set<Entry> entries = new HashSet<>();
+        private final ArrayDeque<Entry> order = new ArrayDeque<>();
+
+        void add(Entry entry) {
+            if (!entries.add(entry)) {
+                return;
+            }
+            order.addLast(entry);
+            if (order.size() > WINDOW_SIZE) {
+                entries.remove(order.removeFirst());
+            }
+        }
+    }
+}
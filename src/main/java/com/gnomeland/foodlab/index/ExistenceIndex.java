@@ -0,0 +1,151 @@
+package com.gnomeland.foodlab.index;
+
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers existence checks before they reach the database. Recipe and user IDs are kept
+ * exactly in bitmaps, so both answers are definite; usernames, emails and ingredient names
+ * go into Bloom filters, which can only prove absence. Each set answers nothing until its
+ * startup load has finished. Writes are applied to the live sets, so nothing inserted
+ * during the load is lost.
+ *
+ * <p>Every method returns {@code true} only when the answer is certain; {@code false} means
+ * the caller has to ask the database.
+ */
+@Component
+public class ExistenceIndex {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RecipeBitmap recipeIds = new RecipeBitmap();
+    private final RecipeBitmap userIds = new RecipeBitmap();
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final BloomFilter ingredientNames;
+    private volatile boolean recipesReady;
+    private volatile boolean usersReady;
+    private volatile boolean ingredientsReady;
+
+    @Autowired
+    public ExistenceIndex(@Value("${existence.expected-names:100000}") int expectedNames) {
+        this.usernames = new BloomFilter(expectedNames, FALSE_POSITIVE_RATE);
+        this.emails = new BloomFilter(expectedNames, FALSE_POSITIVE_RATE);
+        this.ingredientNames = new BloomFilter(expectedNames, FALSE_POSITIVE_RATE);
+    }
+
+    public void addRecipe(Integer recipeId) {
+        if (isIndexable(recipeId)) {
+            write(() -> recipeIds.set(recipeId));
+        }
+    }
+
+    public void removeRecipe(Integer recipeId) {
+        if (isIndexable(recipeId)) {
+            write(() -> recipeIds.clear(recipeId));
+        }
+    }
+
+    public void markRecipesReady() {
+        recipesReady = true;
+    }
+
+    public boolean isRecipePresent(Integer recipeId) {
+        return recipesReady && isIndexable(recipeId) && read(() -> recipeIds.get(recipeId));
+    }
+
+    public boolean isRecipeAbsent(Integer recipeId) {
+        return recipesReady && isIndexable(recipeId) && !read(() -> recipeIds.get(recipeId));
+    }
+
+    public void addUser(Integer userId, String username, String email) {
+        write(() -> {
+            if (isIndexable(userId)) {
+                userIds.set(userId);
+            }
+            addName(usernames, username);
+            addName(emails, email);
+        });
+    }
+
+    public void removeUser(Integer userId) {
+        if (isIndexable(userId)) {
+            write(() -> userIds.clear(userId));
+        }
+    }
+
+    public void markUsersReady() {
+        usersReady = true;
+    }
+
+    public boolean isUserPresent(Integer userId) {
+        return usersReady && isIndexable(userId) && read(() -> userIds.get(userId));
+    }
+
+    public boolean isUserAbsent(Integer userId) {
+        return usersReady && isIndexable(userId) && !read(() -> userIds.get(userId));
+    }
+
+    public boolean isUsernameAbsent(String username) {
+        return usersReady && username != null
+                && !read(() -> usernames.mightContain(fold(username)));
+    }
+
+    public boolean isEmailAbsent(String email) {
+        return usersReady && email != null && !read(() -> emails.mightContain(fold(email)));
+    }
+
+    public void addIngredientName(String name) {
+        write(() -> addName(ingredientNames, name));
+    }
+
+    public void markIngredientsReady() {
+        ingredientsReady = true;
+    }
+
+    public boolean isIngredientNameAbsent(String name) {
+        return ingredientsReady && name != null
+                && !read(() -> ingredientNames.mightContain(fold(name)));
+    }
+
+    private static void addName(BloomFilter filter, String name) {
+        if (name != null) {
+            filter.put(fold(name));
+        }
+    }
+
+    /**
+     * Repository lookups compare {@code upper(...)} values, so names are upper-cased first;
+     * lower-casing afterwards only merges more spellings, which is safe for a filter.
+     */
+    private static String fold(String name) {
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isIndexable(Integer id) {
+        return id != null && id >= 0;
+    }
+
+    private boolean read(BooleanSupplier query) {
+        lock.readLock().lock();
+        try {
+            return query.getAsBoolean();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.gnomeland.foodlab.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Symmetric-delete index over ingredient names. Every name is stored under all variants
+ * obtained by deleting up to {@link #MAX_DISTANCE} characters; a query generates its own
+ * deletes, so candidates are found with hash lookups only and then verified with the
+ * exact edit distance.
+ */
+@Component
+public class IngredientNameIndex {
+    public static final int MAX_DISTANCE = 2;
+    private static final Comparator<NameMatch> RANKING =
+            Comparator.comparingInt(NameMatch::distance)
+                    .thenComparing(NameMatch::name)
+                    .thenComparing(NameMatch::ingredientId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<String>> namesByDelete = new HashMap<>();
+    private final Map<String, Set<Integer>> idsByName = new HashMap<>();
+    private final Map<Integer, String> namesById = new HashMap<>();
+
+    public void put(int ingredientId, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            removeLocked(ingredientId);
+            namesById.put(ingredientId, normalized);
+            Set<Integer> ids = idsByName.computeIfAbsent(normalized, k -> new HashSet<>());
+            if (ids.isEmpty()) {
+                for (String delete : deletes(normalized)) {
+                    namesByDelete.computeIfAbsent(delete, k -> new HashSet<>()).add(normalized);
+                }
+            }
+            ids.add(ingredientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int ingredientId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ingredientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            namesByDelete.clear();
+            idsByName.clear();
+            namesById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return namesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ingredients whose names are within {@code maxDistance} edits of the query,
+     * closest first.
+     */
+    public List<NameMatch> search(String query, int maxDistance) {
+        String normalized = normalize(query);
+        int distanceLimit = Math.min(maxDistance, MAX_DISTANCE);
+        List<NameMatch> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Set<String> candidates = new HashSet<>();
+            for (String delete : deletes(normalized)) {
+                Set<String> names = namesByDelete.get(delete);
+                if (names != null) {
+                    candidates.addAll(names);
+                }
+            }
+            for (String candidate : candidates) {
+                int distance = editDistance(normalized, candidate, distanceLimit);
+                if (distance <= distanceLimit) {
+                    for (Integer ingredientId : idsByName.get(candidate)) {
+                        matches.add(new NameMatch(ingredientId, candidate, distance));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count as one edit).
+     * Returns {@code limit + 1} as soon as the distance is known to exceed {@code limit}.
+     */
+    public static int editDistance(String first, String second, int limit) {
+        if (Math.abs(first.length() - second.length()) > limit) {
+            return limit + 1;
+        }
+        int[] beforePrevious = new int[second.length() + 1];
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+                        previous[j - 1] + cost);
+                if (i > 1 && j > 1 && first.charAt(i - 1) == second.charAt(j - 2)
+                        && first.charAt(i - 2) == second.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[second.length()], limit + 1);
+    }
+
+    private void removeLocked(int ingredientId) {
+        String name = namesById.remove(ingredientId);
+        if (name == null) {
+            return;
+        }
+        Set<Integer> ids = idsByName.get(name);
+        ids.remove(ingredientId);
+        if (!ids.isEmpty()) {
+            return;
+        }
+        idsByName.remove(name);
+        for (String delete : deletes(name)) {
+            Set<String> names = namesByDelete.get(delete);
+            if (names != null) {
+                names.remove(name);
+                if (names.isEmpty()) {
+                    namesByDelete.remove(delete);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletes(String word) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> frontier = List.of(word);
+        for (int distance = 0; distance < MAX_DISTANCE; distance++) {
+            List<String> next = new ArrayList<>();
+            for (String value : frontier) {
+                for (int i = 0; i < value.length(); i++) {
+                    String delete = value.substring(0, i) + value.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record NameMatch(Integer ingredientId, String name, int distance) {
+    }
+}
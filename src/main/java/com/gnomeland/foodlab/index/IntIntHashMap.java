@@ -0,0 +1,173 @@
+package com.gnomeland.foodlab.index;
+
+/**
+ * Open-addressing int-to-int map without boxing. Not thread-safe; callers guard it.
+ * Key {@code 0} is reserved as the empty slot marker, which is fine for database IDs.
+ */
+public class IntIntHashMap {
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap() {
+        this(8);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int minCapacity = Math.max(4, (int) (expectedSize / LOAD_FACTOR));
+        allocate(Integer.highestOneBit(minCapacity - 1) << 1);
+    }
+
+    public int get(int key) {
+        int slot = findSlot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public boolean containsKey(int key) {
+        return key != EMPTY && keys[findSlot(key)] == key;
+    }
+
+    public void put(int key, int value) {
+        checkKey(key);
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}; the entry is removed when it drops to zero.
+     */
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            int updated = values[slot] + delta;
+            if (updated == 0) {
+                removeSlot(slot);
+            } else {
+                values[slot] = updated;
+            }
+            return updated;
+        }
+        if (delta != 0) {
+            put(key, delta);
+        }
+        return delta;
+    }
+
+    public void remove(int key) {
+        if (key == EMPTY) {
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            removeSlot(slot);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public void forEach(IntIntConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        keys[slot] = EMPTY;
+        values[slot] = 0;
+        size--;
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = mix(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                keys[next] = EMPTY;
+                values[next] = 0;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
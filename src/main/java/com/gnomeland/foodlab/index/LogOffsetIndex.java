@@ -0,0 +1,312 @@
+package com.gnomeland.foodlab.index;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Byte offsets of the first line of every hour in the current log file, so a date query
+ * can seek straight to its range instead of reading the file from the start. The index
+ * only ever scans bytes appended since the previous call and appends new entries to a
+ * sidecar file ({@code <log>.idx}); after a restart only the last indexed hour is rescanned.
+ * A new file behind the same path (rollover) resets the index.
+ *
+ * <p>Lines without a timestamp (stack traces) belong to the hour of the line above them.
+ */
+@Component
+public class LogOffsetIndex {
+    private static final int KEY_LENGTH = "yyyy-MM-dd HH".length();
+    private static final DateTimeFormatter HOUR_KEY = DateTimeFormatter.ofPattern("yyyy-MM-dd HH");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String IDENTITY_PREFIX = "# ";
+    private static final Logger logger = LoggerFactory.getLogger(LogOffsetIndex.class);
+
+    private final Path logFile;
+    private final Path sidecarFile;
+    private final NavigableMap<String, Long> hourOffsets = new TreeMap<>();
+    private String identity;
+    private long indexedLength;
+    private boolean sidecarLoaded;
+
+    @Autowired
+    public LogOffsetIndex(@Value("${logging.file.name}") String logFilePath) {
+        this.logFile = Path.of(logFilePath);
+        this.sidecarFile = Path.of(logFilePath + ".idx");
+    }
+
+    /**
+     * Opens the bytes of {@code day} in the current log file, or returns empty when the file
+     * holds no line of that day. Only complete lines are included.
+     */
+    public Optional<LogSlice> openDay(LocalDate day) throws IOException {
+        return open(day.toString(), day.plusDays(1).toString());
+    }
+
+    /**
+     * Opens the hours of the current log file that overlap {@code [from, to)}, or returns
+     * empty when there are none. The slice may start and end with lines outside the window.
+     */
+    public Optional<LogSlice> openWindow(LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isBefore(to)) {
+            end = end.plusHours(1);
+        }
+        return open(HOUR_KEY.format(from), HOUR_KEY.format(end));
+    }
+
+    private Optional<LogSlice> open(String fromKey, String toKey) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(logFile, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        try {
+            long[] range = range(fromKey, toKey);
+            if (range == null || channel.size() < range[1]) {
+                channel.close();
+                return Optional.empty();
+            }
+            return Optional.of(new LogSlice(channel, range[0], range[1]));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private synchronized long[] range(String fromKey, String toKey) throws IOException {
+        refresh();
+        Map.Entry<String, Long> first = hourOffsets.ceilingEntry(fromKey);
+        if (first == null || first.getKey().compareTo(toKey) >= 0) {
+            return null;
+        }
+        Map.Entry<String, Long> next = hourOffsets.ceilingEntry(toKey);
+        long end = next == null ? indexedLength : next.getValue();
+        return end > first.getValue() ? new long[] {first.getValue(), end} : null;
+    }
+
+    /**
+     * Indexes whatever was appended to the log file since the last call.
+     */
+    public synchronized void refresh() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            reset(null);
+            return;
+        }
+        String currentIdentity = String.valueOf(attributes.fileKey() != null
+                ? attributes.fileKey() : attributes.creationTime());
+        if (!sidecarLoaded) {
+            loadSidecar(currentIdentity);
+        }
+        if (!currentIdentity.equals(identity) || attributes.size() < indexedLength) {
+            reset(currentIdentity);
+        }
+        if (attributes.size() > indexedLength) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                scan(channel, attributes.size());
+            }
+        }
+    }
+
+    private void scan(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] head = new byte[KEY_LENGTH];
+        int headLength = 0;
+        long position = indexedLength;
+        long lineStart = indexedLength;
+        List<String> appended = new ArrayList<>();
+
+        while (position < size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, size - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    String key = hourKey(head, headLength);
+                    if (key != null && (hourOffsets.isEmpty()
+                            || key.compareTo(hourOffsets.lastKey()) > 0)) {
+                        hourOffsets.put(key, lineStart);
+                        appended.add(key + '\t' + lineStart);
+                    }
+                    lineStart = position + i + 1;
+                    headLength = 0;
+                } else if (headLength < KEY_LENGTH) {
+                    head[headLength++] = b;
+                }
+            }
+            position += read;
+        }
+        // Хвост без перевода строки ещё дописывается, его разберём при следующем вызове
+        indexedLength = lineStart;
+        appendToSidecar(appended);
+    }
+
+    private static String hourKey(byte[] head, int length) {
+        if (length < KEY_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            boolean separator = i == 4 || i == 7 || i == 10;
+            byte expected = (byte) (i == 10 ? ' ' : '-');
+            if (separator ? head[i] != expected : head[i] < '0' || head[i] > '9') {
+                return null;
+            }
+        }
+        return new String(head, 0, KEY_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    private void reset(String newIdentity) throws IOException {
+        hourOffsets.clear();
+        indexedLength = 0;
+        identity = newIdentity;
+        if (newIdentity == null) {
+            Files.deleteIfExists(sidecarFile);
+            return;
+        }
+        Files.writeString(sidecarFile, IDENTITY_PREFIX + newIdentity + '\n',
+                StandardCharsets.UTF_8);
+    }
+
+    private void loadSidecar(String currentIdentity) {
+        sidecarLoaded = true;
+        if (!Files.isRegularFile(sidecarFile)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(sidecarFile, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(IDENTITY_PREFIX + currentIdentity)) {
+                return;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                int tab = line.indexOf('\t');
+                if (tab == KEY_LENGTH) {
+                    hourOffsets.put(line.substring(0, tab),
+                            Long.parseLong(line.substring(tab + 1)));
+                }
+            }
+            identity = currentIdentity;
+            // Последний час мог дописываться после сохранения, начинаем с его начала
+            indexedLength = hourOffsets.isEmpty() ? 0 : hourOffsets.lastEntry().getValue();
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Индекс лога {} повреждён и будет построен заново", sidecarFile, e);
+            hourOffsets.clear();
+            identity = null;
+        }
+    }
+
+    private void appendToSidecar(List<String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(sidecarFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String entry : entries) {
+                writer.write(entry);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            // Индекс в памяти уже обновлён, файл лишь ускоряет следующий запуск
+            logger.warn("Не удалось дописать индекс лога {}", sidecarFile, e);
+        }
+    }
+
+    /**
+     * An open byte range of the log file; the channel stays valid even if the file is
+     * rolled over while the range is being sent.
+     */
+    public static final class LogSlice implements Closeable {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        LogSlice(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        public long length() {
+            return end - start;
+        }
+
+        /**
+         * Reads the range as a stream; closing the stream leaves the slice open.
+         */
+        public InputStream newInputStream() {
+            return new InputStream() {
+                private long position = start;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (position >= end) {
+                        return -1;
+                    }
+                    if (len == 0) {
+                        return 0;
+                    }
+                    int read = channel.read(ByteBuffer.wrap(b, off,
+                            (int) Math.min(len, end - position)), position);
+                    if (read > 0) {
+                        position += read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        public void transferTo(WritableByteChannel target) throws IOException {
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
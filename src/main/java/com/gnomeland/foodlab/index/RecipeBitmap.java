@@ -0,0 +1,100 @@
+package com.gnomeland.foodlab.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable bitmap keyed by recipe ID. Unlike {@link java.util.BitSet} it can count an
+ * intersection without materializing it. Not thread-safe; callers guard it.
+ */
+public class RecipeBitmap {
+    private static final int WORD_BITS = 64;
+
+    private long[] words;
+
+    public RecipeBitmap() {
+        this.words = new long[1];
+    }
+
+    private RecipeBitmap(long[] words) {
+        this.words = words;
+    }
+
+    public void set(int bit) {
+        int word = bit / WORD_BITS;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << bit;
+    }
+
+    public void clear(int bit) {
+        int word = bit / WORD_BITS;
+        if (word < words.length) {
+            words[word] &= ~(1L << bit);
+        }
+    }
+
+    public boolean get(int bit) {
+        int word = bit / WORD_BITS;
+        return word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int andCardinality(RecipeBitmap other) {
+        int length = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    public RecipeBitmap and(RecipeBitmap other) {
+        int length = Math.min(words.length, other.words.length);
+        long[] result = new long[Math.max(1, length)];
+        for (int i = 0; i < length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new RecipeBitmap(result);
+    }
+
+    public RecipeBitmap copy() {
+        return new RecipeBitmap(words.clone());
+    }
+
+    /**
+     * Returns the first set bit at or after {@code from}, or {@code -1}.
+     */
+    public int nextSetBit(int from) {
+        int word = from / WORD_BITS;
+        if (from < 0 || word >= words.length) {
+            return -1;
+        }
+        long current = words[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return word * WORD_BITS + Long.numberOfTrailingZeros(current);
+            }
+            if (++word >= words.length) {
+                return -1;
+            }
+            current = words[word];
+        }
+    }
+}
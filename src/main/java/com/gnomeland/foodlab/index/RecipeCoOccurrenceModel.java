@@ -0,0 +1,248 @@
+package com.gnomeland.foodlab.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Item-to-item co-occurrence counts built from saved recipes ({@code recipe_users}).
+ * Every row is a sparse primitive map, so memory grows with the number of non-zero pairs.
+ */
+@Component
+public class RecipeCoOccurrenceModel {
+    private static final Comparator<ScoredRecipe> RANKING =
+            Comparator.comparingDouble(ScoredRecipe::score)
+                    .thenComparing(ScoredRecipe::recipeId, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, IntIntHashMap> coOccurrences = new HashMap<>();
+    private Map<Integer, IntIntHashMap> recipesByUser = new HashMap<>();
+    private Map<Integer, IntIntHashMap> usersByRecipe = new HashMap<>();
+
+    public void addSave(int userId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            IntIntHashMap saved = recipesByUser.computeIfAbsent(userId, k -> new IntIntHashMap());
+            if (saved.containsKey(recipeId)) {
+                return;
+            }
+            IntIntHashMap row = coOccurrences.computeIfAbsent(recipeId, k -> new IntIntHashMap());
+            saved.forEach((otherId, ignored) -> {
+                row.addTo(otherId, 1);
+                coOccurrences.computeIfAbsent(otherId, k -> new IntIntHashMap())
+                        .addTo(recipeId, 1);
+            });
+            saved.put(recipeId, 1);
+            usersByRecipe.computeIfAbsent(recipeId, k -> new IntIntHashMap()).put(userId, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSave(int userId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeSaveLocked(userId, recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            IntIntHashMap saved = recipesByUser.get(userId);
+            if (saved != null) {
+                for (int recipeId : saved.keys()) {
+                    removeSaveLocked(userId, recipeId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRecipe(int recipeId) {
+        lock.writeLock().lock();
+        try {
+            IntIntHashMap users = usersByRecipe.get(recipeId);
+            if (users != null) {
+                for (int userId : users.keys()) {
+                    removeSaveLocked(userId, recipeId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole model. Users are independent, so partial rows are built
+     * in parallel per user chunk and merged afterwards.
+     */
+    public void rebuild(Map<Integer, int[]> savedRecipesByUser) {
+        Partial partial = savedRecipesByUser.entrySet().parallelStream()
+                .collect(Partial::new, Partial::accept, Partial::merge);
+
+        lock.writeLock().lock();
+        try {
+            coOccurrences = partial.coOccurrences;
+            recipesByUser = partial.recipesByUser;
+            usersByRecipe = partial.usersByRecipe;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every recipe co-saved with the user's recipes by cosine similarity of
+     * their saver sets and returns the best {@code limit}, excluding already saved ones.
+     */
+    public List<ScoredRecipe> recommend(int userId, int limit) {
+        lock.readLock().lock();
+        try {
+            IntIntHashMap saved = recipesByUser.get(userId);
+            if (saved == null || saved.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+
+            Map<Integer, double[]> scores = new HashMap<>();
+            saved.forEach((savedId, ignored) -> {
+                IntIntHashMap row = coOccurrences.get(savedId);
+                if (row == null) {
+                    return;
+                }
+                double savedNorm = Math.sqrt(saverCount(savedId));
+                row.forEach((candidateId, count) -> {
+                    if (!saved.containsKey(candidateId)) {
+                        double weight = count / (savedNorm * Math.sqrt(saverCount(candidateId)));
+                        scores.computeIfAbsent(candidateId, k -> new double[1])[0] += weight;
+                    }
+                });
+            });
+
+            PriorityQueue<ScoredRecipe> top = new PriorityQueue<>(RANKING);
+            scores.forEach((recipeId, score) -> {
+                ScoredRecipe candidate = new ScoredRecipe(recipeId, score[0]);
+                if (top.size() < limit) {
+                    top.add(candidate);
+                } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            });
+
+            List<ScoredRecipe> result = new ArrayList<>(top);
+            result.sort(RANKING.reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int coOccurrence(int firstRecipeId, int secondRecipeId) {
+        lock.readLock().lock();
+        try {
+            IntIntHashMap row = coOccurrences.get(firstRecipeId);
+            return row == null ? 0 : row.get(secondRecipeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int saverCount(int recipeId) {
+        IntIntHashMap users = usersByRecipe.get(recipeId);
+        return users == null ? 0 : users.size();
+    }
+
+    private void removeSaveLocked(int userId, int recipeId) {
+        IntIntHashMap saved = recipesByUser.get(userId);
+        if (saved == null || !saved.containsKey(recipeId)) {
+            return;
+        }
+        saved.remove(recipeId);
+        IntIntHashMap row = coOccurrences.get(recipeId);
+        saved.forEach((otherId, ignored) -> {
+            if (row != null) {
+                row.addTo(otherId, -1);
+            }
+            IntIntHashMap otherRow = coOccurrences.get(otherId);
+            if (otherRow != null) {
+                otherRow.addTo(recipeId, -1);
+                if (otherRow.isEmpty()) {
+                    coOccurrences.remove(otherId);
+                }
+            }
+        });
+        if (row != null && row.isEmpty()) {
+            coOccurrences.remove(recipeId);
+        }
+        if (saved.isEmpty()) {
+            recipesByUser.remove(userId);
+        }
+        IntIntHashMap users = usersByRecipe.get(recipeId);
+        if (users != null) {
+            users.remove(userId);
+            if (users.isEmpty()) {
+                usersByRecipe.remove(recipeId);
+            }
+        }
+    }
+
+    public record ScoredRecipe(Integer recipeId, double score) {
+    }
+
+    private static final class Partial {
+        private final Map<Integer, IntIntHashMap> coOccurrences = new HashMap<>();
+        private final Map<Integer, IntIntHashMap> recipesByUser = new HashMap<>();
+        private final Map<Integer, IntIntHashMap> usersByRecipe = new HashMap<>();
+
+        void accept(Map.Entry<Integer, int[]> entry) {
+            int userId = entry.getKey();
+            int[] recipes = entry.getValue();
+            IntIntHashMap saved = new IntIntHashMap(recipes.length);
+            for (int recipeId : recipes) {
+                saved.put(recipeId, 1);
+            }
+            int[] distinct = saved.keys();
+            for (int i = 0; i < distinct.length; i++) {
+                IntIntHashMap row = coOccurrences.computeIfAbsent(distinct[i],
+                        k -> new IntIntHashMap());
+                for (int j = 0; j < distinct.length; j++) {
+                    if (i != j) {
+                        row.addTo(distinct[j], 1);
+                    }
+                }
+                usersByRecipe.computeIfAbsent(distinct[i], k -> new IntIntHashMap())
+                        .put(userId, 1);
+            }
+            if (!saved.isEmpty()) {
+                recipesByUser.put(userId, saved);
+            }
+        }
+
+        void merge(Partial other) {
+            mergeRows(coOccurrences, other.coOccurrences);
+            mergeRows(usersByRecipe, other.usersByRecipe);
+            recipesByUser.putAll(other.recipesByUser);
+        }
+
+        private static void mergeRows(Map<Integer, IntIntHashMap> target,
+                                      Map<Integer, IntIntHashMap> source) {
+            source.forEach((key, sourceRow) -> {
+                IntIntHashMap targetRow = target.get(key);
+                if (targetRow == null) {
+                    target.put(key, sourceRow);
+                } else {
+                    sourceRow.forEach(targetRow::addTo);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.gnomeland.foodlab.index;
+
+import com.gnomeland.foodlab.model.Recipe;
+import com.gnomeland.foodlab.model.RecipeIngredient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-facet recipe bitmaps (ingredient, preparation time bucket, protein bucket).
+ * A search intersects the selected bitmaps and then counts every facet value against the
+ * result with {@link RecipeBitmap#andCardinality}, so no per-request GROUP BY is needed.
+ */
+@Component
+public class RecipeFacetIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RecipeBitmap allRecipes = new RecipeBitmap();
+    private final Map<Integer, RecipeBitmap> byIngredient = new HashMap<>();
+    private final Map<PreparationTimeBucket, RecipeBitmap> byPreparationTime =
+            new EnumMap<>(PreparationTimeBucket.class);
+    private final Map<ProteinBucket, RecipeBitmap> byProtein = new EnumMap<>(ProteinBucket.class);
+    private final Map<Integer, FacetDocument> documents = new HashMap<>();
+    private final Map<Integer, Double> proteinsPer100g = new HashMap<>();
+
+    public RecipeFacetIndex() {
+        for (PreparationTimeBucket bucket : PreparationTimeBucket.values()) {
+            byPreparationTime.put(bucket, new RecipeBitmap());
+        }
+        for (ProteinBucket bucket : ProteinBucket.values()) {
+            byProtein.put(bucket, new RecipeBitmap());
+        }
+    }
+
+    public void update(Recipe recipe) {
+        Map<Integer, Double> gramsByIngredient = new HashMap<>();
+        Map<Integer, Double> proteins = new HashMap<>();
+        if (recipe.getRecipeIngredients() != null) {
+            for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
+                Integer ingredientId = recipeIngredient.getIngredient().getId();
+                gramsByIngredient.merge(ingredientId,
+                        valueOrZero(recipeIngredient.getQuantityInGrams()), Double::sum);
+                proteins.put(ingredientId,
+                        valueOrZero(recipeIngredient.getIngredient().getProteins()));
+            }
+        }
+        String name = recipe.getName() == null ? "" : recipe.getName().toLowerCase(Locale.ROOT);
+
+        lock.writeLock().lock();
+        try {
+            proteinsPer100g.putAll(proteins);
+            removeLocked(recipe.getId());
+            FacetDocument document = new FacetDocument(name,
+                    PreparationTimeBucket.of(recipe.getPreparationTime()), gramsByIngredient,
+                    ProteinBucket.of(totalProteins(gramsByIngredient)));
+            addLocked(recipe.getId(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-buckets every recipe using the ingredient after its protein value changed.
+     */
+    public void updateIngredientProteins(int ingredientId, Double proteins) {
+        lock.writeLock().lock();
+        try {
+            proteinsPer100g.put(ingredientId, valueOrZero(proteins));
+            RecipeBitmap recipes = byIngredient.get(ingredientId);
+            if (recipes == null) {
+                return;
+            }
+            for (int id = recipes.nextSetBit(0); id >= 0; id = recipes.nextSetBit(id + 1)) {
+                FacetDocument document = documents.get(id);
+                ProteinBucket bucket =
+                        ProteinBucket.of(totalProteins(document.gramsByIngredient()));
+                if (bucket != document.proteinBucket()) {
+                    byProtein.get(document.proteinBucket()).clear(id);
+                    byProtein.get(bucket).set(id);
+                    documents.put(id, new FacetDocument(document.name(),
+                            document.preparationTimeBucket(), document.gramsByIngredient(),
+                            bucket));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Integer recipeId : new ArrayList<>(documents.keySet())) {
+                removeLocked(recipeId);
+            }
+            proteinsPer100g.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult search(FacetQuery query, int limit) {
+        lock.readLock().lock();
+        try {
+            RecipeBitmap result = filterLocked(query);
+            List<Integer> hits = new ArrayList<>();
+            for (int id = result.nextSetBit(0); id >= 0 && hits.size() < limit;
+                 id = result.nextSetBit(id + 1)) {
+                hits.add(id);
+            }
+
+            Map<Integer, Integer> ingredientCounts = new TreeMap<>();
+            for (Map.Entry<Integer, RecipeBitmap> entry : byIngredient.entrySet()) {
+                int count = entry.getValue().andCardinality(result);
+                if (count > 0) {
+                    ingredientCounts.put(entry.getKey(), count);
+                }
+            }
+            Map<String, Integer> preparationTimeCounts = new LinkedHashMap<>();
+            byPreparationTime.forEach((bucket, recipes) ->
+                    preparationTimeCounts.put(bucket.getLabel(), recipes.andCardinality(result)));
+            Map<String, Integer> proteinCounts = new LinkedHashMap<>();
+            byProtein.forEach((bucket, recipes) ->
+                    proteinCounts.put(bucket.getLabel(), recipes.andCardinality(result)));
+
+            return new FacetResult(result.cardinality(), hits, ingredientCounts,
+                    preparationTimeCounts, proteinCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RecipeBitmap filterLocked(FacetQuery query) {
+        RecipeBitmap result = allRecipes.copy();
+        for (Integer ingredientId : query.ingredientIds()) {
+            RecipeBitmap recipes = byIngredient.get(ingredientId);
+            result = recipes == null ? new RecipeBitmap() : result.and(recipes);
+        }
+        if (query.preparationTime() != null) {
+            result = result.and(byPreparationTime.get(query.preparationTime()));
+        }
+        if (query.protein() != null) {
+            result = result.and(byProtein.get(query.protein()));
+        }
+        if (query.name() != null && !query.name().isBlank()) {
+            String name = query.name().toLowerCase(Locale.ROOT);
+            for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+                if (!documents.get(id).name().contains(name)) {
+                    result.clear(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addLocked(int recipeId, FacetDocument document) {
+        documents.put(recipeId, document);
+        allRecipes.set(recipeId);
+        for (Integer ingredientId : document.gramsByIngredient().keySet()) {
+            byIngredient.computeIfAbsent(ingredientId, k -> new RecipeBitmap()).set(recipeId);
+        }
+        if (document.preparationTimeBucket() != null) {
+            byPreparationTime.get(document.preparationTimeBucket()).set(recipeId);
+        }
+        byProtein.get(document.proteinBucket()).set(recipeId);
+    }
+
+    private void removeLocked(int recipeId) {
+        FacetDocument document = documents.remove(recipeId);
+        if (document == null) {
+            return;
+        }
+        allRecipes.clear(recipeId);
+        for (Integer ingredientId : document.gramsByIngredient().keySet()) {
+            RecipeBitmap recipes = byIngredient.get(ingredientId);
+            if (recipes != null) {
+                recipes.clear(recipeId);
+                if (recipes.isEmpty()) {
+                    byIngredient.remove(ingredientId);
+                }
+            }
+        }
+        if (document.preparationTimeBucket() != null) {
+            byPreparationTime.get(document.preparationTimeBucket()).clear(recipeId);
+        }
+        byProtein.get(document.proteinBucket()).clear(recipeId);
+    }
+
+    private double totalProteins(Map<Integer, Double> gramsByIngredient) {
+        double total = 0;
+        for (Map.Entry<Integer, Double> entry : gramsByIngredient.entrySet()) {
+            total += proteinsPer100g.getOrDefault(entry.getKey(), 0.0) * entry.getValue() / 100;
+        }
+        return total;
+    }
+
+    private static double valueOrZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private record FacetDocument(String name, PreparationTimeBucket preparationTimeBucket,
+                                 Map<Integer, Double> gramsByIngredient,
+                                 ProteinBucket proteinBucket) {
+    }
+
+    public record FacetQuery(String name, List<Integer> ingredientIds,
+                             PreparationTimeBucket preparationTime, ProteinBucket protein) {
+    }
+
+    public record FacetResult(int total, List<Integer> hitIds,
+                              Map<Integer, Integer> ingredientCounts,
+                              Map<String, Integer> preparationTimeCounts,
+                              Map<String, Integer> proteinCounts) {
+    }
+
+    public enum PreparationTimeBucket {
+        UNDER_15_MIN("under-15m", 15),
+        FROM_15_TO_30_MIN("15-30m", 30),
+        FROM_30_TO_60_MIN("30-60m", 60),
+        FROM_60_TO_120_MIN("60-120m", 120),
+        OVER_120_MIN("over-120m", Long.MAX_VALUE);
+
+        private final String label;
+        private final long upperBoundMinutes;
+
+        PreparationTimeBucket(String label, long upperBoundMinutes) {
+            this.label = label;
+            this.upperBoundMinutes = upperBoundMinutes;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static PreparationTimeBucket of(Duration preparationTime) {
+            if (preparationTime == null) {
+                return null;
+            }
+            long minutes = preparationTime.toMinutes();
+            for (PreparationTimeBucket bucket : values()) {
+                if (minutes < bucket.upperBoundMinutes) {
+                    return bucket;
+                }
+            }
+            return OVER_120_MIN;
+        }
+
+        public static Optional<PreparationTimeBucket> fromLabel(String label) {
+            for (PreparationTimeBucket bucket : values()) {
+                if (bucket.label.equalsIgnoreCase(label)) {
+                    return Optional.of(bucket);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    public enum ProteinBucket {
+        UNDER_10_G("under-10g", 10),
+        FROM_10_TO_20_G("10-20g", 20),
+        FROM_20_TO_40_G("20-40g", 40),
+        OVER_40_G("over-40g", Double.MAX_VALUE);
+
+        private final String label;
+        private final double upperBoundGrams;
+
+        ProteinBucket(String label, double upperBoundGrams) {
+            this.label = label;
+            this.upperBoundGrams = upperBoundGrams;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static ProteinBucket of(double proteinGrams) {
+            for (ProteinBucket bucket : values()) {
+                if (proteinGrams < bucket.upperBoundGrams) {
+                    return bucket;
+                }
+            }
+            return OVER_40_G;
+        }
+
+        public static Optional<ProteinBucket> fromLabel(String label) {
+            for (ProteinBucket bucket : values()) {
+                if (bucket.label.equalsIgnoreCase(label)) {
+                    return Optional.of(bucket);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.gnomeland.foodlab.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * MinHash signatures with LSH banding over recipe ingredient sets.
+ * Candidates from shared buckets are re-ranked by exact Jaccard similarity.
+ */
+@Component
+public class RecipeSimilarityIndex {
+    private static final int NUM_HASHES = 128;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int NUM_BANDS = NUM_HASHES / ROWS_PER_BAND;
+    private static final long PRIME = 2_147_483_647L;
+    private static final long SEED = 42L;
+    private static final Comparator<SimilarRecipe> RANKING =
+            Comparator.comparingDouble(SimilarRecipe::similarity)
+                    .thenComparing(SimilarRecipe::recipeId, Comparator.reverseOrder());
+
+    private final long[] hashA = new long[NUM_HASHES];
+    private final long[] hashB = new long[NUM_HASHES];
+    private final Map<Integer, int[]> ingredientSets = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> signatures = new ConcurrentHashMap<>();
+    private final List<Map<Integer, Set<Integer>>> bands = new ArrayList<>(NUM_BANDS);
+
+    public RecipeSimilarityIndex() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            hashA[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            hashB[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < NUM_BANDS; i++) {
+            bands.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public synchronized void update(Integer recipeId, Collection<Integer> ingredientIds) {
+        removeFromBands(recipeId);
+
+        int[] ingredients = ingredientIds.stream()
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        if (ingredients.length == 0) {
+            ingredientSets.remove(recipeId);
+            signatures.remove(recipeId);
+            return;
+        }
+
+        int[] signature = computeSignature(ingredients);
+        ingredientSets.put(recipeId, ingredients);
+        signatures.put(recipeId, signature);
+        for (int band = 0; band < NUM_BANDS; band++) {
+            bands.get(band)
+                    .computeIfAbsent(bandKey(signature, band), k -> ConcurrentHashMap.newKeySet())
+                    .add(recipeId);
+        }
+    }
+
+    public synchronized void remove(Integer recipeId) {
+        removeFromBands(recipeId);
+        ingredientSets.remove(recipeId);
+        signatures.remove(recipeId);
+    }
+
+    public synchronized void clear() {
+        ingredientSets.clear();
+        signatures.clear();
+        bands.forEach(Map::clear);
+    }
+
+    public List<SimilarRecipe> findSimilar(Integer recipeId, int limit) {
+        int[] signature = signatures.get(recipeId);
+        int[] ingredients = ingredientSets.get(recipeId);
+        if (signature == null || ingredients == null || limit <= 0) {
+            return List.of();
+        }
+
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < NUM_BANDS; band++) {
+            Set<Integer> bucket = bands.get(band).get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(recipeId);
+
+        PriorityQueue<SimilarRecipe> top = new PriorityQueue<>(RANKING);
+        for (Integer candidateId : candidates) {
+            int[] other = ingredientSets.get(candidateId);
+            if (other == null) {
+                continue;
+            }
+            SimilarRecipe candidate = new SimilarRecipe(candidateId, jaccard(ingredients, other));
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+
+        List<SimilarRecipe> result = new ArrayList<>(top);
+        result.sort(RANKING.reversed());
+        return result;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public static double jaccard(int[] first, int[] second) {
+        int i = 0;
+        int j = 0;
+        int intersection = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = first.length + second.length - intersection;
+        return union == 0 ? 0.0 : (double) intersection / union;
+    }
+
+    private void removeFromBands(Integer recipeId) {
+        int[] oldSignature = signatures.get(recipeId);
+        if (oldSignature == null) {
+            return;
+        }
+        for (int band = 0; band < NUM_BANDS; band++) {
+            Map<Integer, Set<Integer>> buckets = bands.get(band);
+            int key = bandKey(oldSignature, band);
+            Set<Integer> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(recipeId);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private int[] computeSignature(int[] ingredients) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int ingredientId : ingredients) {
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int hash = (int) ((hashA[i] * ingredientId + hashB[i]) % PRIME);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static int bandKey(int[] signature, int band) {
+        int from = band * ROWS_PER_BAND;
+        int key = 1;
+        for (int i = from; i < from + ROWS_PER_BAND; i++) {
+            key = 31 * key + signature[i];
+        }
+        return key;
+    }
+
+    public record SimilarRecipe(Integer recipeId, double similarity) {
+    }
+}
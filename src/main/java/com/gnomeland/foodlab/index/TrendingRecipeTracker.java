@@ -0,0 +1,163 @@
+package com.gnomeland.foodlab.index;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exponentially decayed popularity per recipe.
+ *
+ * <p>Uses forward decay: an event at time {@code t} adds
+ * {@code weight * e^(lambda * (t - landmark))}, so stored values never need to be decayed
+ * one by one and their order is the order of the decayed scores. Recording adds to the
+ * recipe's {@link DoubleAdder} inside {@link Map#compute}, so it cannot race with pruning of
+ * faded entries; the leaderboard is rebuilt in the background with a bounded heap and
+ * published as an immutable snapshot.
+ */
+@Component
+public class TrendingRecipeTracker {
+    public static final double VIEW_WEIGHT = 1.0;
+    public static final double SAVE_WEIGHT = 5.0;
+    public static final double COMMENT_WEIGHT = 3.0;
+    public static final int MAX_LEADERBOARD_SIZE = 100;
+    private static final long REFRESH_INTERVAL_SECONDS = 5;
+    private static final double MAX_EXPONENT = 300.0;
+    private static final double MIN_SCORE = 1e-3;
+    private static final Comparator<TrendingRecipe> RANKING =
+            Comparator.comparingDouble(TrendingRecipe::score)
+                    .thenComparing(TrendingRecipe::recipeId, Comparator.reverseOrder());
+
+    private final Map<Integer, DoubleAdder> scores = new ConcurrentHashMap<>();
+    private final double lambdaPerMilli;
+    private final Clock clock;
+    private volatile long landmarkMillis;
+    private volatile List<TrendingRecipe> leaderboard = List.of();
+    private ScheduledExecutorService refreshExecutor;
+
+    @Autowired
+    public TrendingRecipeTracker(@Value("${trending.half-life-hours:24}") long halfLifeHours) {
+        this(Duration.ofHours(halfLifeHours), Clock.systemUTC());
+    }
+
+    public TrendingRecipeTracker(Duration halfLife, Clock clock) {
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.clock = clock;
+        this.landmarkMillis = clock.millis();
+    }
+
+    @PostConstruct
+    public void startRefresh() {
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor();
+        refreshExecutor.scheduleAtFixedRate(this::refreshLeaderboard,
+                REFRESH_INTERVAL_SECONDS, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdownRefresh() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    public void recordView(int recipeId) {
+        record(recipeId, VIEW_WEIGHT);
+    }
+
+    public void recordSave(int recipeId) {
+        record(recipeId, SAVE_WEIGHT);
+    }
+
+    public void recordComment(int recipeId) {
+        record(recipeId, COMMENT_WEIGHT);
+    }
+
+    public void remove(int recipeId) {
+        scores.remove(recipeId);
+    }
+
+    /**
+     * Returns the last published leaderboard; never waits for a refresh.
+     */
+    public List<TrendingRecipe> top(int limit) {
+        List<TrendingRecipe> snapshot = leaderboard;
+        return snapshot.subList(0, Math.min(limit, snapshot.size()));
+    }
+
+    public double currentScore(int recipeId) {
+        DoubleAdder adder = scores.get(recipeId);
+        return adder == null ? 0.0 : adder.sum() * decayFactor(clock.millis());
+    }
+
+    public void refreshLeaderboard() {
+        long now = clock.millis();
+        if (lambdaPerMilli * (now - landmarkMillis) > MAX_EXPONENT) {
+            moveLandmark(now);
+        }
+
+        double decay = decayFactor(now);
+        PriorityQueue<TrendingRecipe> top = new PriorityQueue<>(RANKING);
+        scores.forEach((recipeId, adder) -> {
+            double sum = adder.sum();
+            if (sum * decay < MIN_SCORE) {
+                // Повторная проверка под блокировкой ключа: событие могло прийти после чтения sum
+                scores.computeIfPresent(recipeId, (id, current) ->
+                        current == adder && current.sum() * decay < MIN_SCORE ? null : current);
+                return;
+            }
+            TrendingRecipe candidate = new TrendingRecipe(recipeId, sum);
+            if (top.size() < MAX_LEADERBOARD_SIZE) {
+                top.add(candidate);
+            } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        });
+
+        List<TrendingRecipe> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING.reversed());
+        leaderboard = ranked.stream()
+                .map(entry -> new TrendingRecipe(entry.recipeId(), entry.score() * decay))
+                .toList();
+    }
+
+    private void record(int recipeId, double weight) {
+        double exponent = lambdaPerMilli * (clock.millis() - landmarkMillis);
+        double value = weight * Math.exp(exponent);
+        scores.compute(recipeId, (id, adder) -> {
+            DoubleAdder target = adder == null ? new DoubleAdder() : adder;
+            target.add(value);
+            return target;
+        });
+    }
+
+    private double decayFactor(long now) {
+        return Math.exp(-lambdaPerMilli * (now - landmarkMillis));
+    }
+
+    /**
+     * Rescales every accumulator to a newer landmark before the exponent overflows.
+     * Events recorded concurrently with the rescale may be weighted slightly off.
+     */
+    private synchronized void moveLandmark(long now) {
+        double factor = decayFactor(now);
+        landmarkMillis = now;
+        scores.forEach((recipeId, adder) -> adder.add(adder.sumThenReset() * factor));
+    }
+
+    public record TrendingRecipe(Integer recipeId, double score) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.gnomeland.foodlab.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Field layout of a log line as written by a logback pattern ({@code logging.pattern.file}).
+ * Fields are located directly in the raw bytes of a line, so filters can reject a line before
+ * it is decoded. Supported patterns start with a sortable {@code %d{yyyy-MM-dd...}} timestamp
+ * and separate the following conversion words by literal text, e.g.
+ * {@code %d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n}.
+ */
+public final class LogLineLayout {
+
+    /**
+     * Fields a line can be filtered by; everything else is {@link #OTHER}.
+     */
+    public enum Field { TIMESTAMP, THREAD, LEVEL, LOGGER, MESSAGE, OTHER }
+
+    private static final Pattern CONVERSION =
+            Pattern.compile("%-?\\d*(?:\\.-?\\d+)?([a-zA-Z]+)(?:\\{([^}]*)})?");
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss,SSS";
+
+    private final DateTimeFormatter timestampFormat;
+    private final byte[] timestampShape;
+    private final List<Field> fields;
+    private final List<byte[]> separators;
+
+    private LogLineLayout(DateTimeFormatter timestampFormat, byte[] timestampShape,
+                          List<Field> fields, List<byte[]> separators) {
+        this.timestampFormat = timestampFormat;
+        this.timestampShape = timestampShape;
+        this.fields = fields;
+        this.separators = separators;
+    }
+
+    /**
+     * Parses a logback pattern; throws {@link IllegalArgumentException} when lines written by
+     * it cannot be split into fields unambiguously.
+     */
+    public static LogLineLayout parse(String pattern) {
+        List<Field> fields = new ArrayList<>();
+        List<String> separators = new ArrayList<>();
+        String dateFormat = null;
+        Matcher matcher = CONVERSION.matcher(pattern);
+        int literalStart = 0;
+        while (matcher.find()) {
+            String literal = pattern.substring(literalStart, matcher.start());
+            literalStart = matcher.end();
+            String word = matcher.group(1);
+            if (word.equals("n")) {
+                break;
+            }
+            if (fields.isEmpty()) {
+                if (!literal.isEmpty() || !word.equals("d") && !word.equals("date")) {
+                    throw new IllegalArgumentException(
+                            "The log pattern must start with a %d timestamp: " + pattern);
+                }
+                dateFormat = matcher.group(2) == null || matcher.group(2).equals("ISO8601")
+                        ? DEFAULT_DATE_FORMAT : matcher.group(2);
+            } else if (literal.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Fields of the log pattern must be separated by text: " + pattern);
+            } else {
+                separators.add(literal);
+            }
+            fields.add(field(word));
+        }
+        if (dateFormat == null || !dateFormat.startsWith("yyyy-MM-dd")) {
+            throw new IllegalArgumentException(
+                    "The log pattern must start with a yyyy-MM-dd timestamp: " + pattern);
+        }
+        separators.add("");
+
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat);
+        byte[] shape = format.format(LocalDateTime.of(2000, 1, 1, 0, 0))
+                .getBytes(StandardCharsets.US_ASCII);
+        return new LogLineLayout(format, shape, List.copyOf(fields),
+                separators.stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList());
+    }
+
+    private static Field field(String word) {
+        return switch (word) {
+            case "d", "date" -> Field.TIMESTAMP;
+            case "t", "thread" -> Field.THREAD;
+            case "p", "le", "level" -> Field.LEVEL;
+            case "c", "lo", "logger" -> Field.LOGGER;
+            case "m", "msg", "message" -> Field.MESSAGE;
+            default -> Field.OTHER;
+        };
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * The timestamp as it appears at the start of a line; byte order of two such arrays is
+     * their chronological order.
+     */
+    public byte[] formatTimestamp(LocalDateTime time) {
+        return timestampFormat.format(time).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Compares the timestamp at the start of {@code line} with one from
+     * {@link #formatTimestamp}. The line must have been accepted by {@link #locate}.
+     */
+    public int compareTimestamp(byte[] line, byte[] timestamp) {
+        return Arrays.compare(line, 0, timestampShape.length, timestamp, 0, timestamp.length);
+    }
+
+    public int[] newBounds() {
+        return new int[Field.values().length * 2];
+    }
+
+    /**
+     * Finds the fields of {@code line[0, length)} and stores the start and end of each one at
+     * {@code bounds[2 * field.ordinal()]}, or -1 for fields the pattern does not have. Returns
+     * false when the line does not start with a timestamp, e.g. a stack trace frame.
+     */
+    public boolean locate(byte[] line, int length, int[] bounds) {
+        if (!startsWithTimestamp(line, length)) {
+            return false;
+        }
+        Arrays.fill(bounds, -1);
+        int position = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            byte[] separator = separators.get(i);
+            int end;
+            if (i == 0) {
+                end = timestampShape.length;
+                if (!startsWith(line, end, length, separator)) {
+                    return false;
+                }
+            } else if (separator.length == 0) {
+                end = length;
+            } else {
+                end = indexOf(line, position, length, separator);
+                if (end < 0) {
+                    return false;
+                }
+            }
+            int start = position;
+            int trimmedEnd = end;
+            while (start < trimmedEnd && line[start] == ' ') {
+                start++;
+            }
+            while (trimmedEnd > start && line[trimmedEnd - 1] == ' ') {
+                trimmedEnd--;
+            }
+            int slot = fields.get(i).ordinal() * 2;
+            bounds[slot] = start;
+            bounds[slot + 1] = trimmedEnd;
+            position = end + separator.length;
+            // Поле с выравниванием (%-5level) оставляет пробелы перед следующим
+            while (separator.length > 0 && separator[separator.length - 1] == ' '
+                    && position < length && line[position] == ' ') {
+                position++;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWithTimestamp(byte[] line, int length) {
+        if (length < timestampShape.length) {
+            return false;
+        }
+        for (int i = 0; i < timestampShape.length; i++) {
+            boolean digit = timestampShape[i] >= '0' && timestampShape[i] <= '9';
+            if (digit ? line[i] < '0' || line[i] > '9' : line[i] != timestampShape[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] data, int from, int to, byte[] prefix) {
+        return to - from >= prefix.length
+                && Arrays.equals(data, from, from + prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Position of the first {@code needle} in {@code data[from, to)}, or -1.
+     */
+    public static int indexOf(byte[] data, int from, int to, byte[] needle) {
+        int last = to - needle.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -21,4 +21,5 @@ public class Comment {
     private String text;
     private Integer userId;
     private Integer recipeId;
+    private Long textHash;
 }
\ No newline at end of file
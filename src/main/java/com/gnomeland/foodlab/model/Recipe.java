@@ -2,6 +2,7 @@ package com.gnomeland.foodlab.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -11,6 +12,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -25,12 +27,19 @@ import lombok.Setter;
 public class Recipe {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+            generator = "recipe_id_generator")
+    @SequenceGenerator(name = "recipe_id_generator", sequenceName = "recipes_seq",
+            allocationSize = 50)
     private Integer id;
 
     private String name;
     private Duration preparationTime;
 
+    // Maintained by RecipeRepository.insertSave/deleteSave; entity updates never write it back.
+    @Column(updatable = false)
+    private Integer saveCount = 0;
+
     @OneToMany(mappedBy = "recipeId", fetch = FetchType.LAZY,
             cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments;
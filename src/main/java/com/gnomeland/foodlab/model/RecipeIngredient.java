@@ -6,6 +6,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,7 +18,10 @@ import lombok.Setter;
 public class RecipeIngredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+            generator = "recipe_ingredient_id_generator")
+    @SequenceGenerator(name = "recipe_ingredient_id_generator",
+            sequenceName = "recipe_ingredients_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne
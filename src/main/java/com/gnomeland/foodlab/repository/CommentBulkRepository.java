@@ -0,0 +1,90 @@
+package com.gnomeland.foodlab.repository;
+
+import com.gnomeland.foodlab.model.Comment;
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based JDBC access to {@code comments} for the write-behind writer. Every lookup binds
+ * the whole batch as array parameters, so a batch costs the same number of statements as a
+ * single comment.
+ */
+@Repository
+public class CommentBulkRepository {
+    private static final String FIND_RECIPE_IDS = "SELECT id FROM recipes WHERE id = ANY (?)";
+    private static final String FIND_USER_IDS = "SELECT id FROM users WHERE id = ANY (?)";
+    private static final String FIND_COMMENTS = "SELECT user_id, recipe_id, text_hash "
+            + "FROM comments WHERE recipe_id = ANY (?) AND user_id = ANY (?) "
+            + "AND text_hash = ANY (?)";
+    private static final String INSERT = "INSERT INTO comments "
+            + "(text, user_id, recipe_id, text_hash) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CommentBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<Integer> findExistingRecipeIds(Collection<Integer> ids) {
+        return findExistingIds(FIND_RECIPE_IDS, ids);
+    }
+
+    public Set<Integer> findExistingUserIds(Collection<Integer> ids) {
+        return findExistingIds(FIND_USER_IDS, ids);
+    }
+
+    /**
+     * Returns stored comments that may repeat one of the given comments, matched on the
+     * indexed text hash; the result is a superset and callers compare the triples.
+     */
+    public List<Comment> findCandidateDuplicates(Collection<Comment> comments) {
+        if (comments.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_COMMENTS, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("integer",
+                    comments.stream().map(Comment::getRecipeId).distinct().toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("integer",
+                    comments.stream().map(Comment::getUserId).distinct().toArray()));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint",
+                    comments.stream().map(Comment::getTextHash).distinct().toArray()));
+        }, (rs, rowNum) -> {
+            Comment comment = new Comment();
+            comment.setUserId(rs.getInt(1));
+            comment.setRecipeId(rs.getInt(2));
+            comment.setTextHash(rs.getLong(3));
+            return comment;
+        });
+    }
+
+    public void insertAll(List<Comment> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, comments.stream()
+                .map(c -> new Object[] {c.getText(), c.getUserId(), c.getRecipeId(),
+                    c.getTextHash()})
+                .toList());
+    }
+
+    private Set<Integer> findExistingIds(String sql, Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(sql, ps -> {
+            Array array = ps.getConnection().createArrayOf("integer", ids.toArray());
+            ps.setArray(1, array);
+        }, rs -> {
+            existing.add(rs.getInt(1));
+        });
+        return existing;
+    }
+}
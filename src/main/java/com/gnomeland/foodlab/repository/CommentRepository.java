@@ -2,9 +2,20 @@ package com.gnomeland.foodlab.repository;
 
 import com.gnomeland.foodlab.model.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    boolean existsByUserIdAndRecipeIdAndText(Integer userId, Integer recipeId, String text);
+    boolean existsByRecipeIdAndUserIdAndTextHash(Integer recipeId, Integer userId, Long textHash);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.recipeId = :recipeId")
+    int deleteByRecipeId(@Param("recipeId") Integer recipeId);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.userId = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
 }
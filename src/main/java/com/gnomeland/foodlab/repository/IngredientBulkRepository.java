@@ -0,0 +1,69 @@
+package com.gnomeland.foodlab.repository;
+
+import com.gnomeland.foodlab.model.Ingredient;
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based JDBC access to {@code ingredients} for bulk imports, bypassing the persistence
+ * context. Lookups bind the whole name set as a single array parameter.
+ */
+@Repository
+public class IngredientBulkRepository {
+    private static final String FIND_IDS_BY_NAMES = "SELECT lower(name), MIN(id) FROM ingredients "
+            + "WHERE lower(name) = ANY (?) GROUP BY lower(name)";
+    private static final String INSERT = "INSERT INTO ingredients "
+            + "(name, proteins, fats, carbohydrates) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE ingredients "
+            + "SET name = ?, proteins = ?, fats = ?, carbohydrates = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IngredientBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Maps lower-cased names to the ID of the oldest ingredient with that name.
+     */
+    public Map<String, Integer> findIdsByLowerCaseNames(Collection<String> lowerCaseNames) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (lowerCaseNames.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query(FIND_IDS_BY_NAMES, ps -> {
+            Array names = ps.getConnection().createArrayOf("text", lowerCaseNames.toArray());
+            ps.setArray(1, names);
+        }, rs -> {
+            ids.put(rs.getString(1), rs.getInt(2));
+        });
+        return ids;
+    }
+
+    public void insertAll(List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, ingredients.stream()
+                .map(i -> new Object[] {i.getName(), i.getProteins(), i.getFats(),
+                    i.getCarbohydrates()})
+                .toList());
+    }
+
+    public void updateAll(List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE, ingredients.stream()
+                .map(i -> new Object[] {i.getName(), i.getProteins(), i.getFats(),
+                    i.getCarbohydrates(), i.getId()})
+                .toList());
+    }
+}
@@ -1,10 +1,25 @@
 package com.gnomeland.foodlab.repository;
 
 import com.gnomeland.foodlab.model.RecipeIngredient;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
 public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredient, Integer> {
     List<RecipeIngredient> findByIngredientId(Integer ingredientId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RecipeIngredient ri WHERE ri.recipe.id = :recipeId "
+            + "AND ri.ingredient.id NOT IN :ingredientIds")
+    int deleteByRecipeIdAndIngredientIdNotIn(@Param("recipeId") Integer recipeId,
+                                             @Param("ingredientIds")
+                                             Collection<Integer> ingredientIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RecipeIngredient ri WHERE ri.recipe.id = :recipeId")
+    int deleteByRecipeId(@Param("recipeId") Integer recipeId);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.gnomeland.foodlab.repository;
 
 import com.gnomeland.foodlab.model.Recipe;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,4 +23,65 @@ public interface RecipeRepository extends JpaRepository<Recipe, Integer> {
             + "WHERE i.name LIKE CONCAT('%', :ingredientName, '%')",
             nativeQuery = true)
     List<Recipe> findRecipesByIngredientNameNative(@Param("ingredientName") String ingredientName);
+
+    @Query("SELECT u.id, r.id FROM Recipe r JOIN r.users u")
+    List<Object[]> findAllUserRecipePairs();
+
+    @Query("SELECT r.id FROM Recipe r JOIN r.users u WHERE u.id = :userId")
+    List<Integer> findSavedRecipeIdsByUserId(@Param("userId") Integer userId);
+
+    @Query("SELECT DISTINCT i.name FROM RecipeIngredient ri JOIN ri.ingredient i "
+            + "WHERE ri.recipe.id = :recipeId")
+    List<String> findIngredientNamesByRecipeId(@Param("recipeId") Integer recipeId);
+
+    @Query("SELECT DISTINCT i.name FROM RecipeIngredient ri JOIN ri.ingredient i "
+            + "WHERE ri.recipe.id = :recipeId AND i.id NOT IN :ingredientIds")
+    List<String> findIngredientNamesByRecipeIdAndIngredientIdNotIn(
+            @Param("recipeId") Integer recipeId,
+            @Param("ingredientIds") Collection<Integer> ingredientIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM recipe_users WHERE recipe_id = :recipeId", nativeQuery = true)
+    int deleteSavesByRecipeId(@Param("recipeId") Integer recipeId);
+
+    /**
+     * Removes every save of the user and lowers the affected counters; returns the number
+     * of recipes touched.
+     */
+    @Modifying
+    @Query(value = "WITH removed AS (DELETE FROM recipe_users WHERE user_id = :userId "
+            + "RETURNING recipe_id) "
+            + "UPDATE recipes r SET save_count = GREATEST(COALESCE(r.save_count, 0) - c.saves, 0) "
+            + "FROM (SELECT recipe_id, COUNT(*) AS saves FROM removed GROUP BY recipe_id) c "
+            + "WHERE r.id = c.recipe_id",
+            nativeQuery = true)
+    int deleteSavesByUserId(@Param("userId") Integer userId);
+
+    /**
+     * Inserts the save and bumps the counter in one statement; returns 0 when the pair
+     * already exists (unique index {@code uq_recipe_users}).
+     */
+    @Modifying
+    @Query(value = "WITH inserted AS (INSERT INTO recipe_users (recipe_id, user_id) "
+            + "VALUES (:recipeId, :userId) ON CONFLICT DO NOTHING RETURNING recipe_id) "
+            + "UPDATE recipes SET save_count = COALESCE(save_count, 0) + 1 "
+            + "WHERE id IN (SELECT recipe_id FROM inserted)",
+            nativeQuery = true)
+    int insertSave(@Param("recipeId") Integer recipeId, @Param("userId") Integer userId);
+
+    /**
+     * Deletes the save and lowers the counter in one statement; returns 0 when there was
+     * nothing to delete.
+     */
+    @Modifying
+    @Query(value = "WITH removed AS (DELETE FROM recipe_users "
+            + "WHERE recipe_id = :recipeId AND user_id = :userId RETURNING recipe_id) "
+            + "UPDATE recipes SET save_count = GREATEST(COALESCE(save_count, 0) - 1, 0) "
+            + "WHERE id IN (SELECT recipe_id FROM removed)",
+            nativeQuery = true)
+    int deleteSave(@Param("recipeId") Integer recipeId, @Param("userId") Integer userId);
+
+    @Modifying
+    @Query("DELETE FROM Recipe r WHERE r.id = :id")
+    int deleteRowById(@Param("id") Integer id);
 }
\ No newline at end of file
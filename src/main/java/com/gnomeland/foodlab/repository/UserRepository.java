@@ -3,6 +3,9 @@ package com.gnomeland.foodlab.repository;
 import com.gnomeland.foodlab.model.User;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,5 +15,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     List<User> findByEmailIgnoreCase(String email);
 
     List<User> findByUsernameIgnoreCaseAndEmailIgnoreCase(String name, String email);
+
+    @Query("SELECT u.id, u.username, u.email FROM User u")
+    List<Object[]> findAllIdentities();
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteRowById(@Param("id") Integer id);
 }
 
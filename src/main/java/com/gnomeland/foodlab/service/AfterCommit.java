@@ -0,0 +1,29 @@
+package com.gnomeland.foodlab.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of in-memory indexes until the current transaction has committed, so a
+ * rollback never leaves them out of step with the database. Outside a transaction the
+ * update runs at once.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
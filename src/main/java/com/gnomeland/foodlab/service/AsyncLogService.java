@@ -1,56 +1,135 @@
 package com.gnomeland.foodlab.service;
 
 import com.gnomeland.foodlab.exception.LogNotReadyException;
+import com.gnomeland.foodlab.exception.LogSpoolFullException;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.service.LogRangeReader.LogRange;
 import jakarta.annotation.PreDestroy;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
 
+/**
+ * Builds log files for a date in the background. Work runs on a dedicated pool with a
+ * bounded queue; when the queue is full the request is rejected with
+ * {@link TooManyRequestsException}. Requests for a date that is already being processed
+ * share the running task, and finished results for past days, whose logs no longer change,
+ * are kept for the next request.
+ *
+ * <p>Results are streamed into files in a spool directory (optionally gzip-compressed)
+ * instead of the heap. A file is deleted once no live task or cached day refers to it,
+ * and all files together may not exceed the configured quota.
+ */
 @Service
 public class AsyncLogService {
     private static final long TASK_TTL_MINUTES = 5;
+    private static final String SPOOL_PREFIX = "logs_";
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLogService.class);
     private final Map<String, TaskWrapper> tasks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<LogFileResult>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Map<String, LogFileResult> archivedResults;
+    private final Map<Path, Long> spoolFiles = new ConcurrentHashMap<>();
+    private final AtomicLong spoolBytes = new AtomicLong();
     private final ScheduledExecutorService cleanupExecutor =
             Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService logExecutor;
+    private final LogRangeReader logRangeReader;
+    private final Path spoolDirectory;
+    private final boolean compress;
+    private final long spoolQuotaBytes;
 
-    @Value("${logging.file.name}")
-    private String logFilePath;
+    @Autowired
+    public AsyncLogService(LogRangeReader logRangeReader,
+                           @Value("${logs.async.threads:2}") int threads,
+                           @Value("${logs.async.queue-capacity:16}") int queueCapacity,
+                           @Value("${logs.async.cached-days:8}") int cachedDays,
+                           @Value("${logs.async.spool-dir:${java.io.tmpdir}/foodlab-logs}")
+                           String spoolDirectory,
+                           @Value("${logs.async.compress:false}") boolean compress,
+                           @Value("${logs.async.spool-quota-mb:512}") long spoolQuotaMb)
+            throws IOException {
+        this(logRangeReader, new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("log-export-", 0).daemon().factory()), cachedDays,
+                Path.of(spoolDirectory), compress, spoolQuotaMb * 1024 * 1024);
+    }
 
-    public AsyncLogService() {
+    public AsyncLogService(LogRangeReader logRangeReader, ExecutorService logExecutor,
+                           int cachedDays, Path spoolDirectory, boolean compress,
+                           long spoolQuotaBytes) throws IOException {
+        this.logRangeReader = logRangeReader;
+        this.logExecutor = logExecutor;
+        this.spoolDirectory = spoolDirectory.toAbsolutePath().normalize();
+        this.compress = compress;
+        this.spoolQuotaBytes = spoolQuotaBytes;
+        this.archivedResults = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LogFileResult> eldest) {
+                return size() > cachedDays;
+            }
+        };
+        prepareSpoolDirectory();
         cleanupExecutor.scheduleAtFixedRate(this::cleanupExpiredTasks, 1, 1, TimeUnit.MINUTES);
     }
 
     @PreDestroy
     public void shutdownExecutor() {
         cleanupExecutor.shutdown();
+        logExecutor.shutdownNow();
+        spoolFiles.keySet().forEach(this::deleteSpoolFile);
     }
 
     public String createLogTask(String date) {
+        return createLogTask(date, date);
+    }
+
+    /**
+     * Starts an export of the days from {@code from} to {@code to}, both inclusive.
+     */
+    public String createLogTask(String from, String to) {
+        List<LocalDate> days = logRangeReader.parseRange(from, to);
+        LogFileResult wholeArchive = findWholeDayArchive(days);
+        CompletableFuture<LogFileResult> future;
+        if (wholeArchive != null) {
+            future = CompletableFuture.completedFuture(wholeArchive);
+        } else {
+            ensureSpoolSpace();
+            future = findOrStartTask(days);
+        }
         String taskId = UUID.randomUUID().toString();
-        CompletableFuture<LogFileResult> future =
-                CompletableFuture.supplyAsync(() -> processLogs(date));
         tasks.put(taskId, new TaskWrapper(future));
         return taskId;
     }
@@ -63,6 +142,12 @@ public class AsyncLogService {
         return wrapper.getStatus();
     }
 
+    /**
+     * Returns the finished export. A failed export is reported by its cause:
+     * {@link LogSpoolFullException} when the result did not fit into the spool quota,
+     * {@link TooManyRequestsException} when the log reader was saturated, and
+     * {@link IllegalStateException} for any other failure.
+     */
     public LogFileResult getLogFile(String taskId) {
         TaskWrapper wrapper = tasks.get(taskId.trim());
         if (wrapper == null || wrapper.isExpired()) {
@@ -74,94 +159,229 @@ public class AsyncLogService {
         return wrapper.getResult();
     }
 
+    public long getSpoolBytes() {
+        return spoolBytes.get();
+    }
 
-    private LogFileResult processLogs(String date) {
+    private CompletableFuture<LogFileResult> findOrStartTask(List<LocalDate> days) {
+        String key = rangeName(days);
+        LogFileResult cached = getArchivedResult(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<LogFileResult> future;
         try {
-            Thread.sleep(30_000);
-            List<String> logs = readLogsByDate(date);
-            String content = String.join("\n", logs);
-            ByteArrayResource resource = new ByteArrayResource(content
-                    .getBytes(StandardCharsets.UTF_8)) {
-                @Override
-                public String getFilename() {
-                    return "logs_" + date + ".log";
-                }
-            };
-            return new LogFileResult(resource, logs.isEmpty());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new CompletionException("The processing of the log file was "
-                    + "interrupted on the date: " + date, e);
-        } catch (Exception e) {
-            throw new CompletionException("Error processing the log file on the date: " + date, e);
+            future = inFlight.computeIfAbsent(key, name ->
+                    CompletableFuture.supplyAsync(() -> processLogs(days), logExecutor));
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many log requests, try again later");
         }
+        future.whenComplete((result, ex) -> {
+            if (ex == null && days.getLast().isBefore(LocalDate.now())) {
+                putArchivedResult(key, result);
+            }
+            inFlight.remove(key, future);
+        });
+        return future;
     }
 
+    /**
+     * A whole archived day already is what a compressed export of it would produce, so the
+     * archive itself is handed out: nothing is decompressed, filtered or written to the spool.
+     */
+    private LogFileResult findWholeDayArchive(List<LocalDate> days) {
+        if (!compress || days.size() != 1) {
+            return null;
+        }
+        try {
+            Optional<Path> archive = logRangeReader.findWholeDayArchive(days.getFirst());
+            if (archive.isEmpty()) {
+                return null;
+            }
+            return new LogFileResult(archive.get(), Files.size(archive.get()),
+                    SPOOL_PREFIX + days.getFirst() + ".log.gz", true);
+        } catch (IOException e) {
+            logger.warn("Не удалось проверить архив логов за {}", days.getFirst(), e);
+            return null;
+        }
+    }
 
-    private List<String> readLogsByDate(String date) throws IOException {
-        List<String> logs = new ArrayList<>();
-        LocalDate targetDate = LocalDate.parse(date);
+    private static String rangeName(List<LocalDate> days) {
+        return days.size() == 1 ? days.getFirst().toString()
+                : days.getFirst() + "_" + days.getLast();
+    }
 
-        File archiveLog = new File(logFilePath + "." + date + ".0.gz");
-        if (archiveLog.exists()) {
-            logs.addAll(readFromGzip(archiveLog));
+    private LogFileResult getArchivedResult(String date) {
+        synchronized (archivedResults) {
+            return archivedResults.get(date);
         }
+    }
 
-        if (targetDate.equals(LocalDate.now())) {
-            File currentLog = new File(logFilePath);
-            if (currentLog.exists()) {
-                logs.addAll(readFromFile(currentLog));
-            }
+    private void putArchivedResult(String date, LogFileResult result) {
+        synchronized (archivedResults) {
+            archivedResults.put(date, result);
         }
-
-        return logs.stream()
-                .filter(line -> line.startsWith(date)
-                        && !line.contains("INFO - Input to the controller method"))
-                .toList();
     }
 
-    private List<String> readFromGzip(File file) throws IOException {
-        try (GZIPInputStream is = new GZIPInputStream(new FileInputStream(file));
-             BufferedReader reader = new BufferedReader(
-                     new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            List<String> logs = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
-            }
-            return logs;
+    /**
+     * Frees cached days when the spool is full; if live tasks still hold the quota, the new
+     * request is rejected.
+     */
+    private void ensureSpoolSpace() {
+        if (spoolBytes.get() < spoolQuotaBytes) {
+            return;
+        }
+        synchronized (archivedResults) {
+            archivedResults.clear();
+        }
+        deleteUnreferencedFiles();
+        if (spoolBytes.get() >= spoolQuotaBytes) {
+            throw new TooManyRequestsException("The log spool is full, try again later");
         }
     }
 
-    private List<String> readFromFile(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            List<String> logs = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
+    private LogFileResult processLogs(List<LocalDate> days) {
+        String name = rangeName(days);
+        String filename = SPOOL_PREFIX + name + ".log" + (compress ? ".gz" : "");
+        Path file = spoolDirectory.resolve(SPOOL_PREFIX + name + "-" + UUID.randomUUID()
+                + (compress ? ".log.gz" : ".log"));
+        QuotaOutputStream quotaStream = null;
+        try (LogRange range = logRangeReader.open(days)) {
+            long logBytes = 0;
+            if (!range.isEmpty()) {
+                try (OutputStream fileStream =
+                             new BufferedOutputStream(Files.newOutputStream(file))) {
+                    quotaStream = new QuotaOutputStream(fileStream);
+                    OutputStream target =
+                            compress ? new GZIPOutputStream(quotaStream) : quotaStream;
+                    logBytes = range.writeTo(target);
+                    target.close();
+                }
             }
-            return logs;
+            if (logBytes == 0) {
+                if (quotaStream != null) {
+                    quotaStream.release();
+                }
+                Files.deleteIfExists(file);
+                return new LogFileResult(null, 0, filename, compress);
+            }
+            spoolFiles.put(file, quotaStream.written);
+            return new LogFileResult(file, quotaStream.written, filename, compress);
+        } catch (Exception e) {
+            if (quotaStream != null) {
+                quotaStream.release();
+            }
+            deleteQuietly(file);
+            throw new CompletionException("Error processing the log file on the date: " + name, e);
         }
     }
 
     private void cleanupExpiredTasks() {
         tasks.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        deleteUnreferencedFiles();
     }
 
-    public record LogFileResult(ByteArrayResource resource, boolean empty) {
-        public ByteArrayResource getResource() {
-            if (empty) {
-                throw new IllegalStateException("The log is empty");
+    private synchronized void deleteUnreferencedFiles() {
+        Set<Path> live = new HashSet<>();
+        for (TaskWrapper wrapper : tasks.values()) {
+            if (!wrapper.isExpired()) {
+                addFile(live, wrapper.future);
             }
-            return resource;
         }
+        inFlight.values().forEach(future -> addFile(live, future));
+        synchronized (archivedResults) {
+            archivedResults.values().forEach(result -> live.add(result.file()));
+        }
+        for (Path file : List.copyOf(spoolFiles.keySet())) {
+            if (!live.contains(file)) {
+                deleteSpoolFile(file);
+            }
+        }
+    }
 
+    private static void addFile(Set<Path> live, CompletableFuture<LogFileResult> future) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            live.add(future.join().file());
+        }
+    }
+
+    private void deleteSpoolFile(Path file) {
+        Long size = spoolFiles.remove(file);
+        if (size != null) {
+            spoolBytes.addAndGet(-size);
+            deleteQuietly(file);
+        }
+    }
+
+    private void prepareSpoolDirectory() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        // Файлы прошлого запуска никому не принадлежат
+        try (DirectoryStream<Path> leftovers =
+                     Files.newDirectoryStream(spoolDirectory, SPOOL_PREFIX + "*")) {
+            leftovers.forEach(AsyncLogService::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить файл выгрузки логов {}", file, e);
+        }
+    }
+
+    /**
+     * Counts bytes that reach the spool file against the global quota.
+     */
+    private final class QuotaOutputStream extends FilterOutputStream {
+        private long written;
+
+        QuotaOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            reserve(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            reserve(len);
+            out.write(b, off, len);
+        }
+
+        private void reserve(int bytes) throws IOException {
+            written += bytes;
+            if (spoolBytes.addAndGet(bytes) > spoolQuotaBytes) {
+                throw new SpoolQuotaExceededException("The log spool quota of "
+                        + spoolQuotaBytes + " bytes is exhausted");
+            }
+        }
+
+        void release() {
+            spoolBytes.addAndGet(-written);
+            written = 0;
+        }
+    }
+
+    private static final class SpoolQuotaExceededException extends IOException {
+        SpoolQuotaExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A finished export; {@code file} is {@code null} when no line matched the date.
+     */
+    public record LogFileResult(Path file, long size, String filename, boolean compressed) {
         public long getContentLength() {
-            return empty ? 0 : resource.contentLength();
+            return size;
         }
 
         public String getFilename() {
-            return resource.getFilename();
+            return filename;
         }
     }
 
@@ -190,6 +410,15 @@ public class AsyncLogService {
                 Thread.currentThread().interrupt();
                 throw new IllegalStateException("Task aborted", e);
             } catch (ExecutionException e) {
+                // Причина может быть обёрнута, ищем её по всей цепочке
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof SpoolQuotaExceededException) {
+                        throw new LogSpoolFullException(cause.getMessage());
+                    }
+                    if (cause instanceof TooManyRequestsException tooManyRequests) {
+                        throw tooManyRequests;
+                    }
+                }
                 throw new IllegalStateException("Issue error", e.getCause());
             }
         }
@@ -1,15 +1,20 @@
 package com.gnomeland.foodlab.service;
 
 import com.gnomeland.foodlab.dto.CommentDto;
+import com.gnomeland.foodlab.dto.CommentWriteStatusDto;
 import com.gnomeland.foodlab.exception.CommentException;
 import com.gnomeland.foodlab.exception.RecipeException;
 import com.gnomeland.foodlab.exception.UserException;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
 import com.gnomeland.foodlab.model.Comment;
 import com.gnomeland.foodlab.repository.CommentRepository;
 import com.gnomeland.foodlab.repository.RecipeRepository;
 import com.gnomeland.foodlab.repository.UserRepository;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -23,39 +28,71 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
+    private final TrendingRecipeTracker trendingRecipeTracker;
+    private final CommentWriteBehindService commentWriteBehindService;
+    private final ExistenceIndex existenceIndex;
+    private final CommentHashWindow commentHashWindow;
 
     @Autowired
     public CommentService(CommentRepository commentRepository,
-                          RecipeRepository recipeRepository, UserRepository userRepository) {
+                          RecipeRepository recipeRepository, UserRepository userRepository,
+                          TrendingRecipeTracker trendingRecipeTracker,
+                          CommentWriteBehindService commentWriteBehindService,
+                          ExistenceIndex existenceIndex,
+                          CommentHashWindow commentHashWindow) {
         this.commentRepository = commentRepository;
         this.recipeRepository = recipeRepository;
         this.userRepository = userRepository;
+        this.trendingRecipeTracker = trendingRecipeTracker;
+        this.commentWriteBehindService = commentWriteBehindService;
+        this.existenceIndex = existenceIndex;
+        this.commentHashWindow = commentHashWindow;
     }
 
     public ResponseEntity<String> addComment(CommentDto commentDto) {
+        if (commentWriteBehindService.isEnabled()) {
+            // Only definite answers are checked here; the writer verifies the rest in bulk.
+            if (existenceIndex.isRecipeAbsent(commentDto.getRecipeId())) {
+                throw new RecipeException(RECIPE_NOT_FOUND_MESSAGE + commentDto.getRecipeId());
+            }
+            if (existenceIndex.isUserAbsent(commentDto.getUserId())) {
+                throw new UserException(USER_NOT_FOUND_MESSAGE + commentDto.getUserId());
+            }
+            String trackingId = commentWriteBehindService.enqueue(convertToEntity(commentDto));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(trackingId);
+        }
+
         Integer userId = commentDto.getUserId();
         Integer recipeId = commentDto.getRecipeId();
 
-        if (!recipeRepository.existsById(recipeId)) {
+        if (!recipeExists(recipeId)) {
             throw new RecipeException(RECIPE_NOT_FOUND_MESSAGE + recipeId);
         }
 
-        if (!userRepository.existsById(userId)) {
+        if (!userExists(userId)) {
             throw new UserException(USER_NOT_FOUND_MESSAGE + userId);
         }
 
-        boolean commentExists = commentRepository.existsByUserIdAndRecipeIdAndText(
-                userId, recipeId, commentDto.getText());
-        if (commentExists) {
+        long textHash = CommentHashWindow.contentHash(commentDto.getText());
+        if (commentHashWindow.contains(recipeId, userId, textHash)
+                || commentRepository.existsByRecipeIdAndUserIdAndTextHash(
+                        recipeId, userId, textHash)) {
             throw new CommentException("Duplicate comment detected");
         }
 
         Comment comment = convertToEntity(commentDto);
+        comment.setTextHash(textHash);
         commentRepository.save(comment);
+        commentHashWindow.add(recipeId, userId, textHash);
+        trendingRecipeTracker.recordComment(recipeId);
 
         return ResponseEntity.ok("Comment created successfully");
     }
 
+    public CommentWriteStatusDto getCommentWriteStatus(String trackingId) {
+        return commentWriteBehindService.getStatus(trackingId);
+    }
+
     public ResponseEntity<List<CommentDto>> getAllComments() {
 
         List<CommentDto> comments = commentRepository.findAll().stream()
@@ -80,8 +117,18 @@ public class CommentService {
         Comment existingComment = commentRepository.findById(id)
                 .orElseThrow(() -> new CommentException(COMMENT_NOT_FOUND + id));
 
+        Long oldHash = existingComment.getTextHash();
+        long textHash = CommentHashWindow.contentHash(partialCommentDto.getText());
         existingComment.setText(partialCommentDto.getText());
+        existingComment.setTextHash(textHash);
         Comment updatedComment = commentRepository.save(existingComment);
+
+        if (oldHash != null) {
+            commentHashWindow.remove(existingComment.getRecipeId(), existingComment.getUserId(),
+                    oldHash);
+        }
+        commentHashWindow.add(existingComment.getRecipeId(), existingComment.getUserId(),
+                textHash);
         return convertToDto(updatedComment);
     }
 
@@ -91,6 +138,24 @@ public class CommentService {
                 .orElseThrow(() -> new CommentException(COMMENT_NOT_FOUND + id));
 
         commentRepository.delete(comment);
+        if (comment.getTextHash() != null) {
+            commentHashWindow.remove(comment.getRecipeId(), comment.getUserId(),
+                    comment.getTextHash());
+        }
+    }
+
+    private boolean recipeExists(Integer recipeId) {
+        if (existenceIndex.isRecipePresent(recipeId)) {
+            return true;
+        }
+        return !existenceIndex.isRecipeAbsent(recipeId) && recipeRepository.existsById(recipeId);
+    }
+
+    private boolean userExists(Integer userId) {
+        if (existenceIndex.isUserPresent(userId)) {
+            return true;
+        }
+        return !existenceIndex.isUserAbsent(userId) && userRepository.existsById(userId);
     }
 
     private CommentDto convertToDto(Comment comment) {
@@ -0,0 +1,293 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.dto.CommentWriteStatusDto;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
+import com.gnomeland.foodlab.model.Comment;
+import com.gnomeland.foodlab.repository.CommentBulkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional write-behind path for new comments. Accepted comments wait in a bounded queue
+ * and a single background writer persists them in batches: one lookup for recipes, one for
+ * users, one indexed hash lookup for duplicates and one batched INSERT per batch. A full
+ * queue is reported as {@link TooManyRequestsException}; whatever is still queued is written
+ * on shutdown.
+ */
+@Service
+public class CommentWriteBehindService {
+    private static final String RECIPE_NOT_FOUND_MESSAGE = "The recipe was not found: ";
+    private static final String USER_NOT_FOUND_MESSAGE = "The user was not found: ";
+    private static final long STATUS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final Logger logger = LoggerFactory.getLogger(CommentWriteBehindService.class);
+
+    private final CommentBulkRepository commentBulkRepository;
+    private final TrendingRecipeTracker trendingRecipeTracker;
+    private final CommentHashWindow commentHashWindow;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<PendingComment> queue;
+    private final Map<String, PendingComment> pendingById = new ConcurrentHashMap<>();
+    private final Queue<PendingComment> finished = new ConcurrentLinkedQueue<>();
+    // Проверка accepting и постановка в очередь идут под чтением, остановка берёт запись:
+    // после её выключения ни один комментарий не попадёт в очередь, которую уже не разберут
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+    private Thread writer;
+
+    @Autowired
+    public CommentWriteBehindService(
+            CommentBulkRepository commentBulkRepository,
+            TrendingRecipeTracker trendingRecipeTracker,
+            CommentHashWindow commentHashWindow,
+            PlatformTransactionManager transactionManager,
+            @Value("${comments.write-behind.enabled:false}") boolean enabled,
+            @Value("${comments.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${comments.write-behind.batch-size:500}") int batchSize) {
+        this.commentBulkRepository = commentBulkRepository;
+        this.trendingRecipeTracker = trendingRecipeTracker;
+        this.commentHashWindow = commentHashWindow;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void startWriter() {
+        if (enabled) {
+            writer = Thread.ofPlatform().name("comment-writer").daemon().start(this::runWriter);
+        }
+    }
+
+    @PreDestroy
+    public void shutdownWriter() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int written = flush();
+        if (written > 0) {
+            logger.info("При остановке записано {} отложенных комментариев", written);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a comment without touching the database and returns its tracking ID.
+     */
+    public String enqueue(Comment comment) {
+        comment.setTextHash(CommentHashWindow.contentHash(comment.getText()));
+        PendingComment pending = new PendingComment(UUID.randomUUID().toString(), comment);
+        pendingById.put(pending.trackingId, pending);
+        boolean queued;
+        acceptLock.readLock().lock();
+        try {
+            queued = accepting && queue.offer(pending);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!queued) {
+            pendingById.remove(pending.trackingId);
+            throw new TooManyRequestsException("The comment queue is full, try again later");
+        }
+        return pending.trackingId;
+    }
+
+    public CommentWriteStatusDto getStatus(String trackingId) {
+        purgeExpired();
+        PendingComment pending = pendingById.get(trackingId.trim());
+        if (pending == null) {
+            throw new NoSuchElementException("The comment was not found or outdated: "
+                    + trackingId);
+        }
+        CommentWriteStatusDto dto = new CommentWriteStatusDto();
+        dto.setTrackingId(pending.trackingId);
+        dto.setStatus(pending.status.name());
+        dto.setMessage(pending.message);
+        return dto;
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread and returns the number of
+     * comments that were inserted.
+     */
+    public int flush() {
+        int written = 0;
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            written += writeBatch(batch);
+            batch.clear();
+        }
+        return written;
+    }
+
+    private void runWriter() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    purgeExpired();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int writeBatch(List<PendingComment> batch) {
+        List<PendingComment> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> insertValid(batch));
+        } catch (RuntimeException e) {
+            logger.error("Не удалось записать пакет из {} комментариев", batch.size(), e);
+            inserted = List.of();
+            for (PendingComment pending : batch) {
+                pending.finish(WriteStatus.FAILED, "The comment could not be saved");
+            }
+        }
+        if (inserted == null) {
+            inserted = List.of();
+        }
+        for (PendingComment pending : inserted) {
+            Comment comment = pending.comment;
+            commentHashWindow.add(comment.getRecipeId(), comment.getUserId(),
+                    comment.getTextHash());
+            trendingRecipeTracker.recordComment(comment.getRecipeId());
+            pending.finish(WriteStatus.WRITTEN, null);
+        }
+        finished.addAll(batch);
+        logger.debug("Записан пакет комментариев: {} из {}", inserted.size(), batch.size());
+        return inserted.size();
+    }
+
+    private List<PendingComment> insertValid(List<PendingComment> batch) {
+        Set<Integer> recipeIds = commentBulkRepository.findExistingRecipeIds(
+                distinctIds(batch, Comment::getRecipeId));
+        Set<Integer> userIds = commentBulkRepository.findExistingUserIds(
+                distinctIds(batch, Comment::getUserId));
+        Set<CommentKey> seen = new HashSet<>();
+        commentBulkRepository.findCandidateDuplicates(batch.stream()
+                        .map(pending -> pending.comment)
+                        .toList())
+                .forEach(comment -> seen.add(CommentKey.of(comment)));
+
+        List<PendingComment> valid = new ArrayList<>();
+        for (PendingComment pending : batch) {
+            Comment comment = pending.comment;
+            if (!recipeIds.contains(comment.getRecipeId())) {
+                pending.finish(WriteStatus.REJECTED,
+                        RECIPE_NOT_FOUND_MESSAGE + comment.getRecipeId());
+            } else if (!userIds.contains(comment.getUserId())) {
+                pending.finish(WriteStatus.REJECTED, USER_NOT_FOUND_MESSAGE + comment.getUserId());
+            } else if (commentHashWindow.contains(comment.getRecipeId(), comment.getUserId(),
+                    comment.getTextHash()) || !seen.add(CommentKey.of(comment))) {
+                pending.finish(WriteStatus.REJECTED, "Duplicate comment detected");
+            } else {
+                valid.add(pending);
+            }
+        }
+        commentBulkRepository.insertAll(valid.stream().map(pending -> pending.comment).toList());
+        return valid;
+    }
+
+    private static List<Integer> distinctIds(List<PendingComment> batch,
+                                             Function<Comment, Integer> idGetter) {
+        return batch.stream()
+                .map(pending -> idGetter.apply(pending.comment))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        PendingComment oldest;
+        while ((oldest = finished.peek()) != null && now - oldest.finishedAt > STATUS_TTL_MILLIS) {
+            finished.poll();
+            pendingById.remove(oldest.trackingId);
+        }
+    }
+
+    public enum WriteStatus {
+        QUEUED, WRITTEN, REJECTED, FAILED
+    }
+
+    private record CommentKey(Integer userId, Integer recipeId, Long textHash) {
+        static CommentKey of(Comment comment) {
+            return new CommentKey(comment.getUserId(), comment.getRecipeId(),
+                    comment.getTextHash());
+        }
+    }
+
+    private static final class PendingComment {
+        private final String trackingId;
+        private final Comment comment;
+        private volatile WriteStatus status = WriteStatus.QUEUED;
+        private volatile String message;
+        private volatile long finishedAt;
+
+        PendingComment(String trackingId, Comment comment) {
+            this.trackingId = trackingId;
+            this.comment = comment;
+        }
+
+        void finish(WriteStatus finalStatus, String finalMessage) {
+            if (status != WriteStatus.QUEUED) {
+                return;
+            }
+            message = finalMessage;
+            finishedAt = System.currentTimeMillis();
+            status = finalStatus;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.cache.InMemoryCache;
+import com.gnomeland.foodlab.dto.ImportErrorDto;
+import com.gnomeland.foodlab.dto.ImportReportDto;
+import com.gnomeland.foodlab.dto.IngredientDto;
+import com.gnomeland.foodlab.exception.ValidationException;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
+import com.gnomeland.foodlab.model.Ingredient;
+import com.gnomeland.foodlab.repository.IngredientBulkRepository;
+import com.gnomeland.foodlab.validation.IngredientValidator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Upserts ingredients from a CSV stream ({@code name,proteins,fats,carbohydrates}).
+ * Rows are validated inline and deduplicated by lower-cased name within a chunk (the last
+ * row wins). Each chunk takes one lookup query, one batched INSERT and one batched UPDATE,
+ * all in a single transaction. A chunk that fails to commit is reported with its row range,
+ * and the import goes on with the next chunk.
+ */
+@Service
+public class IngredientImportService {
+    public static final int IMPORT_CHUNK_SIZE = 5000;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int COLUMNS = 4;
+    private static final Logger logger = LoggerFactory.getLogger(IngredientImportService.class);
+
+    private final IngredientBulkRepository ingredientBulkRepository;
+    private final IngredientNameIndex ingredientNameIndex;
+    private final RecipeFacetIndex recipeFacetIndex;
+    private final InMemoryCache inMemoryCache;
+    private final ExistenceIndex existenceIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public IngredientImportService(IngredientBulkRepository ingredientBulkRepository,
+                                   IngredientNameIndex ingredientNameIndex,
+                                   RecipeFacetIndex recipeFacetIndex,
+                                   InMemoryCache inMemoryCache,
+                                   ExistenceIndex existenceIndex,
+                                   PlatformTransactionManager transactionManager) {
+        this.ingredientBulkRepository = ingredientBulkRepository;
+        this.ingredientNameIndex = ingredientNameIndex;
+        this.recipeFacetIndex = recipeFacetIndex;
+        this.inMemoryCache = inMemoryCache;
+        this.existenceIndex = existenceIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportReportDto importCsv(Reader reader) throws IOException {
+        long start = System.nanoTime();
+        ImportReportDto report = new ImportReportDto();
+        Map<String, Ingredient> chunk = new LinkedHashMap<>();
+        long[] chunkRows = new long[2];
+        boolean updatedExisting = false;
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        long row = 0;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank() || (row == 1 && isHeader(line))) {
+                continue;
+            }
+            report.setProcessed(report.getProcessed() + 1);
+            try {
+                Ingredient ingredient = parseRow(line);
+                if (chunk.isEmpty()) {
+                    chunkRows[0] = row;
+                }
+                chunkRows[1] = row;
+                chunk.put(ingredient.getName().toLowerCase(Locale.ROOT), ingredient);
+            } catch (ValidationException e) {
+                addError(report, row, e.getMessage());
+            }
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                updatedExisting |= writeChunk(report, chunk, chunkRows);
+            }
+        }
+        updatedExisting |= writeChunk(report, chunk, chunkRows);
+        report.setCompleted(true);
+
+        if (updatedExisting) {
+            inMemoryCache.removeAll();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Импорт ингредиентов: обработано {}, записано {}, ошибок {} за {} мс "
+                        + "({} строк/с)", report.getProcessed(), report.getImported(),
+                report.getFailed(), elapsedMillis, report.getProcessed() * 1000 / elapsedMillis);
+        return report;
+    }
+
+    /**
+     * Writes one deduplicated chunk, whose first and last rows are in {@code rows}, and
+     * returns whether any existing row was updated.
+     */
+    private boolean writeChunk(ImportReportDto report, Map<String, Ingredient> chunk,
+                               long[] rows) {
+        if (chunk.isEmpty()) {
+            return false;
+        }
+        List<Ingredient> inserts = new ArrayList<>();
+        List<Ingredient> updates = new ArrayList<>();
+
+        Map<String, Integer> insertedIds;
+        try {
+            insertedIds = transactionTemplate.execute(status -> {
+                Map<String, Integer> existingIds =
+                        ingredientBulkRepository.findIdsByLowerCaseNames(chunk.keySet());
+                chunk.forEach((lowerCaseName, ingredient) -> {
+                    Integer id = existingIds.get(lowerCaseName);
+                    if (id == null) {
+                        inserts.add(ingredient);
+                    } else {
+                        ingredient.setId(id);
+                        updates.add(ingredient);
+                    }
+                });
+                ingredientBulkRepository.insertAll(inserts);
+                ingredientBulkRepository.updateAll(updates);
+                return ingredientBulkRepository.findIdsByLowerCaseNames(inserts.stream()
+                        .map(ingredient -> ingredient.getName().toLowerCase(Locale.ROOT))
+                        .toList());
+            });
+        } catch (RuntimeException e) {
+            // Транзакция пакета откатилась целиком; уже записанные пакеты остаются
+            logger.warn("Пакет импорта ингредиентов, строки {}-{}, не записан", rows[0],
+                    rows[1], e);
+            report.setFailed(report.getFailed() + chunk.size());
+            addError(report, rows[0], rows[1], "Chunk was not saved: " + e.getMessage());
+            chunk.clear();
+            return false;
+        }
+
+        for (Ingredient ingredient : chunk.values()) {
+            existenceIndex.addIngredientName(ingredient.getName());
+        }
+        for (Ingredient ingredient : inserts) {
+            Integer id = insertedIds == null ? null
+                    : insertedIds.get(ingredient.getName().toLowerCase(Locale.ROOT));
+            if (id != null) {
+                ingredientNameIndex.put(id, ingredient.getName());
+            }
+        }
+        for (Ingredient ingredient : updates) {
+            ingredientNameIndex.put(ingredient.getId(), ingredient.getName());
+            recipeFacetIndex.updateIngredientProteins(ingredient.getId(),
+                    ingredient.getProteins());
+        }
+
+        report.setImported(report.getImported() + chunk.size());
+        chunk.clear();
+        return !updates.isEmpty();
+    }
+
+    private static Ingredient parseRow(String line) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() != COLUMNS) {
+            throw new ValidationException("Expected " + COLUMNS + " columns but got "
+                    + values.size());
+        }
+        IngredientDto dto = new IngredientDto();
+        dto.setName(values.get(0).trim());
+        dto.setProteins(parseNutrient(values.get(1), "Proteins"));
+        dto.setFats(parseNutrient(values.get(2), "Fats"));
+        dto.setCarbohydrates(parseNutrient(values.get(3), "Carbohydrates"));
+        IngredientValidator.validateIngredientDto(dto, false);
+
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(dto.getName());
+        ingredient.setProteins(dto.getProteins());
+        ingredient.setFats(dto.getFats());
+        ingredient.setCarbohydrates(dto.getCarbohydrates());
+        return ingredient;
+    }
+
+    private static Double parseNutrient(String value, String fieldName) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(fieldName + " must be a number: " + value);
+        }
+    }
+
+    /**
+     * Splits one RFC 4180 line; quoted fields may contain commas and doubled quotes.
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>(COLUMNS);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.trim().toLowerCase(Locale.ROOT).startsWith("name,");
+    }
+
+    private static void addError(ImportReportDto report, long row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        addError(report, row, null, message);
+    }
+
+    private static void addError(ImportReportDto report, long row, Long lastRow,
+                                 String message) {
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            ImportErrorDto error = new ImportErrorDto();
+            error.setRow(row);
+            error.setLastRow(lastRow);
+            error.setMessage(message);
+            report.getErrors().add(error);
+        }
+    }
+}
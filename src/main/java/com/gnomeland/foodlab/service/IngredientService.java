@@ -4,13 +4,21 @@ import com.gnomeland.foodlab.cache.InMemoryCache;
 import com.gnomeland.foodlab.dto.IngredientDto;
 import com.gnomeland.foodlab.dto.RecipeIngredientDto;
 import com.gnomeland.foodlab.exception.IngredientException;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex.NameMatch;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
 import com.gnomeland.foodlab.model.Ingredient;
 import com.gnomeland.foodlab.model.RecipeIngredient;
 import com.gnomeland.foodlab.repository.IngredientRepository;
 import com.gnomeland.foodlab.repository.RecipeIngredientRepository;
 import jakarta.transaction.Transactional;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -22,14 +30,36 @@ public class IngredientService {
     private final IngredientRepository ingredientRepository;
     private final RecipeIngredientRepository recipeIngredientRepository;
     private final InMemoryCache inMemoryCache;
+    private final RecipeFacetIndex recipeFacetIndex;
+    private final IngredientNameIndex ingredientNameIndex;
+    private final ExistenceIndex existenceIndex;
+    private static final Logger logger = LoggerFactory.getLogger(IngredientService.class);
 
     @Autowired
     public IngredientService(IngredientRepository ingredientRepository,
                              RecipeIngredientRepository recipeIngredientRepository,
-                             InMemoryCache inMemoryCache) {
+                             InMemoryCache inMemoryCache,
+                             RecipeFacetIndex recipeFacetIndex,
+                             IngredientNameIndex ingredientNameIndex,
+                             ExistenceIndex existenceIndex) {
         this.ingredientRepository = ingredientRepository;
         this.recipeIngredientRepository = recipeIngredientRepository;
         this.inMemoryCache = inMemoryCache;
+        this.recipeFacetIndex = recipeFacetIndex;
+        this.ingredientNameIndex = ingredientNameIndex;
+        this.existenceIndex = existenceIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildNameIndex() {
+        ingredientNameIndex.clear();
+        ingredientRepository.findAll().forEach(ingredient -> {
+            ingredientNameIndex.put(ingredient.getId(), ingredient.getName());
+            existenceIndex.addIngredientName(ingredient.getName());
+        });
+        existenceIndex.markIngredientsReady();
+        logger.info("Индекс названий ингредиентов построен: {} ингредиентов",
+                ingredientNameIndex.size());
     }
 
     public List<IngredientDto> getIngredients(String name) {
@@ -48,6 +78,23 @@ public class IngredientService {
         return ingredients.stream().map(this::convertToDto).toList();
     }
 
+    public List<IngredientDto> getIngredients(String name, boolean fuzzy) {
+        if (!fuzzy || name == null) {
+            return getIngredients(name);
+        }
+
+        List<NameMatch> matches = ingredientNameIndex.search(name,
+                IngredientNameIndex.MAX_DISTANCE);
+        List<IngredientDto> ingredients = RankedEntities.load(matches, NameMatch::ingredientId,
+                ingredientRepository::findAllById, Ingredient::getId,
+                (match, ingredient) -> convertToDto(ingredient));
+
+        if (ingredients.isEmpty()) {
+            throw new IngredientException(INGREDIENT_NOT_FOUND + name);
+        }
+        return ingredients;
+    }
+
     public IngredientDto getIngredientById(Integer id) {
         Ingredient ingredient = ingredientRepository.findById(id)
                 .orElseThrow(() -> new IngredientException(INGREDIENT_NOT_FOUND + id));
@@ -56,10 +103,13 @@ public class IngredientService {
 
     public IngredientDto addIngredient(IngredientDto ingredientDto) {
         Ingredient ingredient = convertToEntity(ingredientDto);
-        if (!ingredientRepository.findByNameIgnoreCase(ingredient.getName()).isEmpty()) {
+        if (!existenceIndex.isIngredientNameAbsent(ingredient.getName())
+                && !ingredientRepository.findByNameIgnoreCase(ingredient.getName()).isEmpty()) {
             throw new IllegalArgumentException(INGREDIENT_ALREADY_EXISTS + ingredient.getName());
         }
         Ingredient savedIngredient = ingredientRepository.save(ingredient);
+        ingredientNameIndex.put(savedIngredient.getId(), savedIngredient.getName());
+        existenceIndex.addIngredientName(savedIngredient.getName());
 
         return convertToDto(savedIngredient);
     }
@@ -77,6 +127,9 @@ public class IngredientService {
         ingredient.setCarbohydrates(updatedIngredientDto.getCarbohydrates());
 
         Ingredient updatedIngredient = ingredientRepository.save(ingredient);
+        recipeFacetIndex.updateIngredientProteins(id, updatedIngredient.getProteins());
+        ingredientNameIndex.put(id, updatedIngredient.getName());
+        existenceIndex.addIngredientName(updatedIngredient.getName());
 
         inMemoryCache.remove(CACHE_KEY_RECIPE_INGREDIENT_PREFIX + oldName);
         inMemoryCache.remove(CACHE_KEY_RECIPE_INGREDIENT_PREFIX + updatedIngredient.getName());
@@ -101,6 +154,7 @@ public class IngredientService {
         // Очищаем кэш и удаляем ингредиент
         inMemoryCache.removeAll();
         ingredientRepository.deleteById(id);
+        ingredientNameIndex.remove(id);
 
         return ResponseEntity.noContent().build();
     }
@@ -126,6 +180,9 @@ public class IngredientService {
         }
 
         Ingredient updatedIngredient = ingredientRepository.save(ingredient);
+        recipeFacetIndex.updateIngredientProteins(id, updatedIngredient.getProteins());
+        ingredientNameIndex.put(id, updatedIngredient.getName());
+        existenceIndex.addIngredientName(updatedIngredient.getName());
 
         inMemoryCache.remove(CACHE_KEY_RECIPE_INGREDIENT_PREFIX + oldName);
         inMemoryCache.remove(CACHE_KEY_RECIPE_INGREDIENT_PREFIX + updatedIngredient.getName());
@@ -0,0 +1,44 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.logging.LogLineLayout;
+import com.gnomeland.foodlab.logging.LogLineLayout.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Filters of a log entry, built by {@link LogQueryService#parseFilter}. {@code levels},
+ * {@code loggerName}, {@code thread} and {@code regex} are null when not filtered;
+ * {@code loggerName} matches any part of the logger field.
+ */
+public record LogEntryFilter(List<byte[]> levels, byte[] loggerName, byte[] thread,
+                             Pattern regex) {
+
+    /**
+     * Checks the header line of an entry against the level, thread and logger filters without
+     * decoding it; {@code bounds} are the field bounds from {@link LogLineLayout#locate}.
+     */
+    public boolean matchesHeader(byte[] line, int[] bounds) {
+        if (levels != null) {
+            int start = bounds[Field.LEVEL.ordinal() * 2];
+            int end = bounds[Field.LEVEL.ordinal() * 2 + 1];
+            if (levels.stream().noneMatch(level ->
+                    Arrays.equals(line, start, end, level, 0, level.length))) {
+                return false;
+            }
+        }
+        if (thread != null) {
+            int start = bounds[Field.THREAD.ordinal() * 2];
+            int end = bounds[Field.THREAD.ordinal() * 2 + 1];
+            if (!Arrays.equals(line, start, end, thread, 0, thread.length)) {
+                return false;
+            }
+        }
+        if (loggerName != null) {
+            int start = bounds[Field.LOGGER.ordinal() * 2];
+            int end = bounds[Field.LOGGER.ordinal() * 2 + 1];
+            return LogLineLayout.indexOf(line, start, end, loggerName) >= 0;
+        }
+        return true;
+    }
+}
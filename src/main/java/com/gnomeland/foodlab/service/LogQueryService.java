@@ -0,0 +1,363 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.index.LogOffsetIndex.LogSlice;
+import com.gnomeland.foodlab.logging.LogLineLayout;
+import com.gnomeland.foodlab.logging.LogLineLayout.Field;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Searches the logs of a time window, both the gz archives and the current log file, for
+ * entries matching level, logger, thread and regex filters. An entry is a timestamped line
+ * together with the continuation lines (stack traces) that follow it.
+ *
+ * <p>Lines are matched as raw bytes: the timestamp and the header fields are located with the
+ * {@link LogLineLayout} of {@code logging.pattern.file} and compared without decoding, and
+ * only entries that pass them are decoded for the regex. Sources are scanned in parallel a
+ * few at a time and written in chronological order; scanning stops once the limit is
+ * reached, and a source stops at the first line past the window.
+ */
+@Service
+public class LogQueryService {
+    private static final List<String> LEVELS = List.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR");
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final LogRangeReader logRangeReader;
+    private final LogOffsetIndex logOffsetIndex;
+    private final LogLineLayout layout;
+    private final ExecutorService queryPool;
+    private final int sourcesInFlight;
+    private final int maxDays;
+    private final int maxLimit;
+
+    @Autowired
+    public LogQueryService(LogRangeReader logRangeReader, LogOffsetIndex logOffsetIndex,
+                           @Value("${logging.pattern.file}") String pattern,
+                           @Value("${logs.query.threads:4}") int threads,
+                           @Value("${logs.query.queue-capacity:64}") int queueCapacity,
+                           @Value("${logs.range.max-days:31}") int maxDays,
+                           @Value("${logs.query.max-limit:10000}") int maxLimit) {
+        // При заполненной очереди источник читает сам поток запроса
+        this(logRangeReader, logOffsetIndex, LogLineLayout.parse(pattern),
+                new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        Thread.ofPlatform().name("log-query-", 0).daemon().factory(),
+                        (task, executor) -> task.run()),
+                threads, maxDays, maxLimit);
+    }
+
+    public LogQueryService(LogRangeReader logRangeReader, LogOffsetIndex logOffsetIndex,
+                           LogLineLayout layout, ExecutorService queryPool,
+                           int sourcesInFlight, int maxDays, int maxLimit) {
+        this.logRangeReader = logRangeReader;
+        this.logOffsetIndex = logOffsetIndex;
+        this.layout = layout;
+        this.queryPool = queryPool;
+        this.sourcesInFlight = sourcesInFlight;
+        this.maxDays = maxDays;
+        this.maxLimit = maxLimit;
+    }
+
+    @PreDestroy
+    public void shutdownPool() {
+        queryPool.shutdownNow();
+    }
+
+    /**
+     * Parses and checks the query parameters; {@code from} is inclusive, {@code to} exclusive.
+     */
+    public LogQuery parseQuery(String from, String to, String level, String loggerName,
+                               String thread, String regex, int limit) {
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.parse(from);
+            end = LocalDateTime.parse(to);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Timestamps must be in format yyyy-MM-ddTHH:mm:ss");
+        }
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start.toLocalDate(), end.toLocalDate()) >= maxDays) {
+            throw new BadRequestException("The range must not exceed " + maxDays + " days");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new BadRequestException("'limit' must be between 1 and " + maxLimit);
+        }
+        return new LogQuery(start, end, parseFilter(level, loggerName, thread, regex), limit);
+    }
+
+    /**
+     * Parses the entry filters shared by queries and the live tail; {@code level} is the
+     * lowest level to return. Blank filters are ignored.
+     */
+    public LogEntryFilter parseFilter(String level, String loggerName, String thread,
+                                      String regex) {
+        List<byte[]> levels = null;
+        if (!isBlank(level)) {
+            int lowest = LEVELS.indexOf(level.trim().toUpperCase(Locale.ROOT));
+            if (lowest < 0) {
+                throw new BadRequestException("'level' must be one of " + LEVELS);
+            }
+            requireField(Field.LEVEL);
+            levels = LEVELS.subList(lowest, LEVELS.size()).stream()
+                    .map(name -> name.getBytes(StandardCharsets.US_ASCII)).toList();
+        }
+        if (!isBlank(loggerName)) {
+            requireField(Field.LOGGER);
+        }
+        if (!isBlank(thread)) {
+            requireField(Field.THREAD);
+        }
+        Pattern compiled = null;
+        if (!isBlank(regex)) {
+            try {
+                compiled = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new BadRequestException("Invalid regex: " + e.getDescription());
+            }
+        }
+        return new LogEntryFilter(levels, bytesOrNull(loggerName), bytesOrNull(thread),
+                compiled);
+    }
+
+    private void requireField(Field field) {
+        if (!layout.has(field)) {
+            throw new BadRequestException("The log pattern has no " + field + " field");
+        }
+    }
+
+    /**
+     * Writes the entries matching {@code query} to {@code out} in chronological order and
+     * returns how many were written.
+     */
+    public int query(LogQuery query, OutputStream out) throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<SourceScan> scans = new ArrayList<>();
+        Map<String, List<Path>> archives = logRangeReader.findArchives();
+        LocalDate lastDay = query.to().toLocalDate();
+        for (LocalDate day = query.from().toLocalDate(); !day.isAfter(lastDay);
+             day = day.plusDays(1)) {
+            for (Path archive : archives.getOrDefault(day.toString(), List.of())) {
+                scans.add(new SourceScan(query, archive, null, cancelled));
+            }
+        }
+        LogSlice currentSlice = logOffsetIndex.openWindow(query.from(), query.to()).orElse(null);
+        if (currentSlice != null) {
+            scans.add(new SourceScan(query, null, currentSlice, cancelled));
+        }
+
+        Deque<Future<List<byte[]>>> running = new ArrayDeque<>();
+        int next = 0;
+        int written = 0;
+        try {
+            while (written < query.limit() && (next < scans.size() || !running.isEmpty())) {
+                while (running.size() < sourcesInFlight && next < scans.size()) {
+                    running.add(queryPool.submit(scans.get(next++)));
+                }
+                for (byte[] entry : await(running.poll())) {
+                    if (written == query.limit()) {
+                        break;
+                    }
+                    out.write(entry);
+                    written++;
+                }
+            }
+            out.flush();
+            return written;
+        } finally {
+            cancelled.set(true);
+            running.forEach(task -> task.cancel(false));
+            if (currentSlice != null) {
+                currentSlice.close();
+            }
+        }
+    }
+
+    private static List<byte[]> await(Future<List<byte[]>> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching the logs");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to search the logs", e.getCause());
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static byte[] bytesOrNull(String value) {
+        return isBlank(value) ? null : value.trim().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A checked query.
+     */
+    public record LogQuery(LocalDateTime from, LocalDateTime to, LogEntryFilter filter,
+                           int limit) {
+    }
+
+    /**
+     * Scans one archive part or the current-file window and returns at most {@code limit}
+     * matching entries.
+     */
+    private final class SourceScan implements Callable<List<byte[]>> {
+        private final LogQuery query;
+        private final Path archive;
+        private final LogSlice currentSlice;
+        private final AtomicBoolean cancelled;
+        private final byte[] from;
+        private final byte[] to;
+        private final int[] bounds = layout.newBounds();
+
+        SourceScan(LogQuery query, Path archive, LogSlice currentSlice,
+                   AtomicBoolean cancelled) {
+            this.query = query;
+            this.archive = archive;
+            this.currentSlice = currentSlice;
+            this.cancelled = cancelled;
+            this.from = layout.formatTimestamp(query.from());
+            this.to = layout.formatTimestamp(query.to());
+        }
+
+        @Override
+        public List<byte[]> call() throws IOException {
+            List<byte[]> matches = new ArrayList<>();
+            ByteArrayOutputStream entry = new ByteArrayOutputStream();
+            boolean collecting = false;
+            try (InputStream in = archive != null
+                    ? new GZIPInputStream(Files.newInputStream(archive), READ_BUFFER_SIZE)
+                    : currentSlice.newInputStream()) {
+                LineReader lines = new LineReader(in);
+                while (!cancelled.get() && lines.next()) {
+                    if (layout.locate(lines.line, lines.length, bounds)) {
+                        if (collecting && addIfMatches(entry, matches)) {
+                            return matches;
+                        }
+                        collecting = false;
+                        // Строки в файле идут по времени: дальше окна читать незачем
+                        if (layout.compareTimestamp(lines.line, to) >= 0) {
+                            break;
+                        }
+                        collecting = layout.compareTimestamp(lines.line, from) >= 0
+                                && query.filter().matchesHeader(lines.line, bounds);
+                    }
+                    if (collecting) {
+                        entry.write(lines.line, 0, lines.length);
+                        entry.write('\n');
+                    }
+                }
+            }
+            if (collecting) {
+                addIfMatches(entry, matches);
+            }
+            return matches;
+        }
+
+        /**
+         * Keeps the finished entry if it matches the regex; returns true once the limit is
+         * reached.
+         */
+        private boolean addIfMatches(ByteArrayOutputStream entry, List<byte[]> matches) {
+            Pattern regex = query.filter().regex();
+            if (regex == null || regex.matcher(entry.toString(StandardCharsets.UTF_8)).find()) {
+                matches.add(entry.toByteArray());
+            }
+            entry.reset();
+            return matches.size() >= query.limit();
+        }
+    }
+
+    /**
+     * Splits a stream into lines without decoding them; {@code line[0, length)} holds the
+     * current line without its line break.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[256];
+        private int length;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        boolean next() throws IOException {
+            length = 0;
+            boolean any = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(in.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return any;
+                    }
+                }
+                any = true;
+                int end = position;
+                while (end < limit && buffer[end] != '\n') {
+                    end++;
+                }
+                append(end - position);
+                if (end < limit) {
+                    position = end + 1;
+                    if (length > 0 && line[length - 1] == '\r') {
+                        length--;
+                    }
+                    return true;
+                }
+                position = limit;
+            }
+        }
+
+        private void append(int count) {
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(buffer, position, line, length, count);
+            length += count;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.index.LogOffsetIndex.LogSlice;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads the log lines of a range of days. Archived days, including every size-rolled part
+ * ({@code .0.gz}, {@code .1.gz}, ...), are decompressed and filtered in parallel on a
+ * bounded pool; each part hands its output over in small chunks, and the caller writes the
+ * parts strictly in order as soon as the next chunk is ready. Only a few parts ahead of the
+ * one being written are read at a time, the next one is submitted as each is written, so a
+ * slow client holds a bounded number of pool threads and chunks. Days still in the current
+ * log file are copied from the range recorded in {@link LogOffsetIndex}.
+ *
+ * <p>A day keeps its timestamped lines together with the continuation lines (stack traces)
+ * that follow them.
+ */
+@Service
+public class LogRangeReader {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_DAY = 8;
+    // Сколько частей архива одного запроса распаковывается одновременно
+    private static final int READ_AHEAD_PARTS = 2;
+    private static final byte[] END_OF_DAY = new byte[0];
+    private static final Pattern ARCHIVE_SUFFIX =
+            Pattern.compile("(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.gz");
+
+    private final String logFilePath;
+    private final LogOffsetIndex logOffsetIndex;
+    private final ExecutorService readerPool;
+    private final int maxDays;
+
+    @Autowired
+    public LogRangeReader(@Value("${logging.file.name}") String logFilePath,
+                          LogOffsetIndex logOffsetIndex,
+                          @Value("${logs.range.threads:4}") int threads,
+                          @Value("${logs.range.queue-capacity:256}") int queueCapacity,
+                          @Value("${logs.range.max-days:31}") int maxDays) {
+        this(logFilePath, logOffsetIndex,
+                new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        Thread.ofPlatform().name("log-reader-", 0).daemon().factory()),
+                maxDays);
+    }
+
+    public LogRangeReader(String logFilePath, LogOffsetIndex logOffsetIndex,
+                          ExecutorService readerPool, int maxDays) {
+        this.logFilePath = logFilePath;
+        this.logOffsetIndex = logOffsetIndex;
+        this.readerPool = readerPool;
+        this.maxDays = maxDays;
+    }
+
+    @PreDestroy
+    public void shutdownPool() {
+        readerPool.shutdownNow();
+    }
+
+    /**
+     * Parses and checks a {@code from}/{@code to} pair, both inclusive.
+     */
+    public List<LocalDate> parseRange(String from, String to) {
+        LocalDate first;
+        LocalDate last;
+        try {
+            first = LocalDate.parse(from);
+            last = LocalDate.parse(to);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Dates must be in format yyyy-MM-dd");
+        }
+        if (last.isBefore(first)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= maxDays) {
+            throw new BadRequestException("The range must not exceed " + maxDays + " days");
+        }
+        return first.datesUntil(last.plusDays(1)).toList();
+    }
+
+    /**
+     * Starts reading the given days; the returned range must be closed. Throws
+     * {@link TooManyRequestsException} when the reader pool cannot take the work.
+     */
+    public LogRange open(List<LocalDate> days) throws IOException {
+        Map<String, List<Path>> archives = findArchives();
+        LogRange range = new LogRange(readerPool);
+        try {
+            for (LocalDate day : days) {
+                List<Path> parts = archives.getOrDefault(day.toString(), List.of());
+                for (int i = 0; i < parts.size(); i++) {
+                    range.parts.add(new PartReader(day, parts.get(i), null, i > 0));
+                }
+                LogSlice currentSlice = logOffsetIndex.openDay(day).orElse(null);
+                if (currentSlice != null) {
+                    range.parts.add(new PartReader(day, null, currentSlice, false));
+                }
+            }
+            range.submitAhead(0);
+        } catch (RejectedExecutionException e) {
+            range.close();
+            throw new TooManyRequestsException("Too many log requests, try again later");
+        } catch (IOException | RuntimeException e) {
+            range.close();
+            throw e;
+        }
+        return range;
+    }
+
+    /**
+     * Returns the archive of {@code day} when it alone holds the whole day: a past day rolled
+     * into a single part that starts with a line of that day, with nothing of the day left in
+     * the current log file. Such an archive can be sent as is, without decompressing it.
+     */
+    public Optional<Path> findWholeDayArchive(LocalDate day) throws IOException {
+        if (!day.isBefore(LocalDate.now())) {
+            return Optional.empty();
+        }
+        List<Path> parts = findArchives().getOrDefault(day.toString(), List.of());
+        if (parts.size() != 1 || !startsWithDay(parts.getFirst(), day)) {
+            return Optional.empty();
+        }
+        Optional<LogSlice> currentSlice = logOffsetIndex.openDay(day);
+        if (currentSlice.isPresent()) {
+            currentSlice.get().close();
+            return Optional.empty();
+        }
+        return Optional.of(parts.getFirst());
+    }
+
+    /**
+     * Checks only the first line: a late line of the previous day can only precede the lines
+     * of the day, so the rest of the archive is never decompressed.
+     */
+    private static boolean startsWithDay(Path archive, LocalDate day) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            String first = reader.readLine();
+            return first != null && PartReader.startsWithTimestamp(first)
+                    && first.startsWith(day.toString());
+        }
+    }
+
+    /**
+     * Finds every rolled part ({@code <log>.<date>.<n>.gz}) in one directory listing and
+     * groups them by date ({@code yyyy-MM-dd}), parts in rolling order.
+     */
+    public Map<String, List<Path>> findArchives() throws IOException {
+        Path logFile = Path.of(logFilePath).toAbsolutePath();
+        String prefix = logFile.getFileName() + ".";
+        Map<String, TreeMap<Integer, Path>> parts = new HashMap<>();
+        try (DirectoryStream<Path> files =
+                     Files.newDirectoryStream(logFile.getParent(), prefix + "*.gz")) {
+            for (Path file : files) {
+                Matcher matcher = ARCHIVE_SUFFIX.matcher(
+                        file.getFileName().toString().substring(prefix.length()));
+                if (matcher.matches() && Files.isRegularFile(file)) {
+                    parts.computeIfAbsent(matcher.group(1), date -> new TreeMap<>())
+                            .put(Integer.valueOf(matcher.group(2)), file);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return Map.of();
+        }
+        Map<String, List<Path>> archives = new HashMap<>();
+        parts.forEach((date, byIndex) -> archives.put(date, List.copyOf(byIndex.values())));
+        return archives;
+    }
+
+    /**
+     * Days of one request, in chronological order.
+     */
+    public static final class LogRange implements Closeable {
+        private final ExecutorService readerPool;
+        private final List<PartReader> parts = new ArrayList<>();
+
+        private LogRange(ExecutorService readerPool) {
+            this.readerPool = readerPool;
+        }
+
+        public boolean isEmpty() {
+            return parts.isEmpty();
+        }
+
+        /**
+         * Writes all days in order, sending each chunk as soon as it is produced, and
+         * returns the number of bytes written.
+         */
+        public long writeTo(OutputStream out) throws IOException {
+            long written = 0;
+            for (int i = 0; i < parts.size(); i++) {
+                try {
+                    submitAhead(i);
+                } catch (RejectedExecutionException e) {
+                    throw new IOException("The log reader pool cannot take the next part", e);
+                }
+                written += parts.get(i).writeTo(out);
+            }
+            out.flush();
+            return written;
+        }
+
+        /**
+         * Submits the archive parts from {@code current} on that are not read yet, up to
+         * {@code READ_AHEAD_PARTS}. A part further ahead that the pool rejects is submitted
+         * again when the writer moves on; only a rejected {@code current} part is an error.
+         */
+        private void submitAhead(int current) {
+            int archives = 0;
+            for (int i = current; i < parts.size() && archives < READ_AHEAD_PARTS; i++) {
+                PartReader part = parts.get(i);
+                if (part.archive == null) {
+                    continue;
+                }
+                archives++;
+                if (part.task == null) {
+                    try {
+                        part.task = readerPool.submit(part);
+                    } catch (RejectedExecutionException e) {
+                        if (i == current) {
+                            throw e;
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (PartReader part : parts) {
+                try {
+                    part.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * One archive part or the current-file range of a day.
+     */
+    private static final class PartReader implements Runnable, Closeable {
+        private final String date;
+        private final Path archive;
+        private final LogSlice currentSlice;
+        private final boolean continuesDay;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(CHUNKS_PER_DAY);
+        private volatile boolean cancelled;
+        private volatile IOException failure;
+        private Future<?> task;
+
+        PartReader(LocalDate day, Path archive, LogSlice currentSlice, boolean continuesDay) {
+            this.date = day.toString();
+            this.archive = archive;
+            this.currentSlice = currentSlice;
+            this.continuesDay = continuesDay;
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         new ChunkOutputStream(), StandardCharsets.UTF_8), CHUNK_SIZE)) {
+                // Следующая часть может начаться с хвоста стектрейса из предыдущей
+                boolean inDay = continuesDay;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (startsWithTimestamp(line)) {
+                        inDay = line.startsWith(date);
+                    }
+                    if (inDay) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException("Failed to read the log archive " + archive, e);
+            } finally {
+                if (!cancelled) {
+                    try {
+                        put(END_OF_DAY);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+
+        long writeTo(OutputStream out) throws IOException {
+            long written = 0;
+            if (archive != null) {
+                try {
+                    byte[] chunk;
+                    while ((chunk = chunks.poll(1, TimeUnit.SECONDS)) != END_OF_DAY) {
+                        if (chunk != null) {
+                            out.write(chunk);
+                            written += chunk.length;
+                        } else if (task.isDone() && chunks.isEmpty()) {
+                            // Поток чтения завершился, не передав конец дня
+                            throw failure != null ? failure
+                                    : new IOException("The log reader stopped: " + archive);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading " + archive);
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            if (currentSlice != null) {
+                out.flush();
+                currentSlice.transferTo(Channels.newChannel(out));
+                written += currentSlice.length();
+            }
+            return written;
+        }
+
+        /**
+         * Waits for room as long as the consumer needs: a slow client only slows the reader
+         * down. The wait ends when the range is closed.
+         */
+        private void put(byte[] chunk) throws IOException {
+            try {
+                while (!chunks.offer(chunk, 1, TimeUnit.SECONDS)) {
+                    if (cancelled) {
+                        throw new IOException("The log request was cancelled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading " + archive);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            cancelled = true;
+            if (task != null) {
+                task.cancel(false);
+            }
+            chunks.clear();
+            if (currentSlice != null) {
+                currentSlice.close();
+            }
+        }
+
+        private static boolean startsWithTimestamp(String line) {
+            return line.length() >= 10 && Character.isDigit(line.charAt(0))
+                    && line.charAt(4) == '-' && line.charAt(7) == '-';
+        }
+
+        /**
+         * Hands full chunks over to the consumer.
+         */
+        private final class ChunkOutputStream extends OutputStream {
+            private byte[] buffer = new byte[CHUNK_SIZE];
+            private int size;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (size == buffer.length) {
+                    flushChunk();
+                }
+                buffer[size++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    if (size == buffer.length) {
+                        flushChunk();
+                    }
+                    int n = Math.min(len, buffer.length - size);
+                    System.arraycopy(b, off, buffer, size, n);
+                    size += n;
+                    off += n;
+                    len -= n;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (size > 0) {
+                    flushChunk();
+                }
+            }
+
+            private void flushChunk() throws IOException {
+                byte[] chunk = size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+                put(chunk);
+                buffer = new byte[CHUNK_SIZE];
+                size = 0;
+            }
+        }
+    }
+}
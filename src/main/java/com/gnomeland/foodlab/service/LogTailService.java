@@ -0,0 +1,401 @@
+package com.gnomeland.foodlab.service;
+
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.logging.LogLineLayout;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Follows the current log file and fans its new lines out to live viewers. A single follower
+ * thread, started with the first viewer and stopped after the last one leaves, reads only the
+ * bytes appended since its previous read, woken by a {@link WatchService} or at the latest
+ * once per poll interval. When the file is rolled over, the rest of the old file is read
+ * before the follower switches to the new one.
+ *
+ * <p>Header lines are checked against each viewer's {@link LogEntryFilter} as raw bytes, and
+ * continuation lines follow the decision for their header. Each viewer has a bounded queue
+ * drained by its own sender task; a viewer that falls that far behind is disconnected instead
+ * of slowing the others down.
+ */
+@Service
+public class LogTailService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 1000;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    // Служебные элементы очереди, сравниваются по ссылке
+    private static final String HEARTBEAT = new String("heartbeat");
+    private static final String CLOSED = new String("closed");
+    private static final Logger logger = LoggerFactory.getLogger(LogTailService.class);
+
+    private final Path logFile;
+    private final LogLineLayout layout;
+    private final ExecutorService senders;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private Thread follower;
+    private boolean shutdown;
+
+    @Autowired
+    public LogTailService(@Value("${logging.file.name}") String logFilePath,
+                          @Value("${logging.pattern.file}") String pattern,
+                          @Value("${logs.tail.max-subscribers:100}") int maxSubscribers,
+                          @Value("${logs.tail.queue-capacity:1000}") int queueCapacity) {
+        this(Path.of(logFilePath), LogLineLayout.parse(pattern),
+                Executors.newVirtualThreadPerTaskExecutor(), maxSubscribers, queueCapacity);
+    }
+
+    public LogTailService(Path logFile, LogLineLayout layout, ExecutorService senders,
+                          int maxSubscribers, int queueCapacity) {
+        this.logFile = logFile.toAbsolutePath();
+        this.layout = layout;
+        this.senders = senders;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            if (follower != null) {
+                follower.interrupt();
+            }
+        }
+        subscribers.forEach(subscriber -> subscriber.close(true));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Registers a viewer for lines appended from now on. Throws
+     * {@link TooManyRequestsException} when the viewer limit is reached.
+     */
+    public synchronized Subscription subscribe(LogEntryFilter filter, TailListener listener) {
+        if (shutdown || subscribers.size() >= maxSubscribers) {
+            throw new TooManyRequestsException("Too many log viewers, try again later");
+        }
+        Subscriber subscriber = new Subscriber(filter, listener);
+        subscribers.add(subscriber);
+        senders.execute(subscriber);
+        if (follower == null) {
+            follower = new Thread(this::follow, "log-tail");
+            follower.setDaemon(true);
+            follower.start();
+        }
+        return subscriber;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private synchronized boolean shouldStop() {
+        if (shutdown || subscribers.isEmpty()) {
+            releaseFollower();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void releaseFollower() {
+        if (follower == Thread.currentThread()) {
+            follower = null;
+        }
+    }
+
+    private void follow() {
+        FileFollower file = new FileFollower();
+        WatchService watcher = null;
+        try {
+            watcher = register();
+            file.start();
+            long nextHeartbeat = System.currentTimeMillis() + HEARTBEAT_MILLIS;
+            while (!shouldStop()) {
+                if (watcher != null) {
+                    WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(POLL_MILLIS);
+                }
+                file.readAppended();
+                if (System.currentTimeMillis() >= nextHeartbeat) {
+                    subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+                    nextHeartbeat = System.currentTimeMillis() + HEARTBEAT_MILLIS;
+                }
+            }
+        } catch (InterruptedException | ClosedByInterruptException
+                 | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Слежение за файлом лога {} остановлено", logFile, e);
+            releaseFollower();
+            subscribers.forEach(subscriber -> subscriber.close(true));
+        } finally {
+            file.close();
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    logger.warn("Не удалось закрыть WatchService для {}", logFile, e);
+                }
+            }
+        }
+    }
+
+    private WatchService register() throws IOException {
+        WatchService watcher = logFile.getFileSystem().newWatchService();
+        try {
+            logFile.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            return watcher;
+        } catch (IOException e) {
+            // Каталога ещё нет: обходимся периодическим опросом
+            watcher.close();
+            return null;
+        }
+    }
+
+    private void publish(byte[] line, int length, int[] bounds) {
+        boolean header = layout.locate(line, length, bounds);
+        String text = null;
+        for (Subscriber subscriber : subscribers) {
+            if (header) {
+                subscriber.accepting = subscriber.filter.matchesHeader(line, bounds);
+            }
+            if (subscriber.accepting) {
+                if (text == null) {
+                    text = new String(line, 0, length, StandardCharsets.UTF_8);
+                }
+                subscriber.offer(text);
+            }
+        }
+    }
+
+    /**
+     * Receives the lines of one viewer on its sender task.
+     */
+    public interface TailListener {
+        void onLine(String line) throws IOException;
+
+        /**
+         * Called periodically while the viewer is connected, so dead connections are noticed
+         * even when no line arrives.
+         */
+        void onHeartbeat() throws IOException;
+
+        /**
+         * Called when the service ends the subscription: the viewer fell behind, sending
+         * failed or the application is stopping.
+         */
+        void onClose();
+    }
+
+    /**
+     * Ends a viewer's subscription; closing it more than once is harmless.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final class Subscriber implements Subscription, Runnable {
+        private final LogEntryFilter filter;
+        private final TailListener listener;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Меняется только потоком слежения
+        private boolean accepting;
+
+        Subscriber(LogEntryFilter filter, TailListener listener) {
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        void offer(String line) {
+            if (!closed.get() && !queue.offer(line)) {
+                logger.warn("Зритель лога не успевает получать строки и будет отключён");
+                close(true);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                String line;
+                while ((line = queue.take()) != CLOSED) {
+                    if (line == HEARTBEAT) {
+                        listener.onHeartbeat();
+                    } else {
+                        listener.onLine(line);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                close(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            close(false);
+        }
+
+        void close(boolean notifyListener) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            do {
+                queue.clear();
+            } while (!queue.offer(CLOSED));
+            if (notifyListener) {
+                listener.onClose();
+            }
+        }
+    }
+
+    /**
+     * Reads complete lines appended to the log file; used only by the follower thread.
+     */
+    private final class FileFollower {
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final int[] bounds = layout.newBounds();
+        private byte[] line = new byte[256];
+        private int length;
+        private FileChannel channel;
+        private Object identity;
+        private long offset;
+
+        void start() throws IOException {
+            BasicFileAttributes attributes = attributes();
+            if (attributes != null) {
+                // Показываем только новые строки
+                open(attributes, attributes.size());
+            }
+        }
+
+        void readAppended() throws IOException {
+            BasicFileAttributes attributes = attributes();
+            if (attributes == null) {
+                // Файл переименован, новый ещё не создан
+                return;
+            }
+            if (channel != null && !identityOf(attributes).equals(identity)) {
+                readTo(channel.size());
+                close();
+            }
+            if (channel == null) {
+                open(attributes, 0);
+                if (channel == null) {
+                    return;
+                }
+            } else if (attributes.size() < offset) {
+                offset = 0;
+                length = 0;
+            }
+            readTo(channel.size());
+        }
+
+        private void readTo(long size) throws IOException {
+            while (offset < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, size - offset));
+                int read = channel.read(buffer, offset);
+                if (read <= 0) {
+                    return;
+                }
+                offset += read;
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '\n') {
+                        append(bytes, start, i - start);
+                        if (length > 0 && line[length - 1] == '\r') {
+                            length--;
+                        }
+                        publish(line, length, bounds);
+                        length = 0;
+                        start = i + 1;
+                    }
+                }
+                // Незаконченная строка дописывается, её конец придёт со следующим чтением
+                append(bytes, start, read - start);
+            }
+        }
+
+        private void append(byte[] bytes, int from, int count) {
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(bytes, from, line, length, count);
+            length += count;
+        }
+
+        private void open(BasicFileAttributes attributes, long position) throws IOException {
+            try {
+                channel = FileChannel.open(logFile, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            identity = identityOf(attributes);
+            offset = position;
+            length = 0;
+        }
+
+        private BasicFileAttributes attributes() throws IOException {
+            try {
+                return Files.readAttributes(logFile, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+
+        private static Object identityOf(BasicFileAttributes attributes) {
+            return attributes.fileKey() != null ? attributes.fileKey()
+                    : attributes.creationTime();
+        }
+
+        void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Не удалось закрыть файл лога {}", logFile, e);
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gnomeland.foodlab.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the entities behind a ranked list of index hits with one query and keeps the rank
+ * order. Hits whose entity is no longer in the database are skipped.
+ */
+final class RankedEntities {
+
+    private RankedEntities() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    static <H, E, R> List<R> load(List<H> hits, Function<H, Integer> hitId,
+                                  Function<List<Integer>, List<E>> findAllById,
+                                  Function<E, Integer> entityId, BiFunction<H, E, R> mapper) {
+        Map<Integer, E> entitiesById = findAllById.apply(hits.stream().map(hitId).toList())
+                .stream()
+                .collect(Collectors.toMap(entityId, Function.identity()));
+
+        return hits.stream()
+                .filter(hit -> entitiesById.containsKey(hitId.apply(hit)))
+                .map(hit -> mapper.apply(hit, entitiesById.get(hitId.apply(hit))))
+                .toList();
+    }
+}
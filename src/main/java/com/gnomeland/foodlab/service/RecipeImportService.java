@@ -0,0 +1,129 @@
+package com.gnomeland.foodlab.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gnomeland.foodlab.dto.ImportErrorDto;
+import com.gnomeland.foodlab.dto.ImportReportDto;
+import com.gnomeland.foodlab.dto.RecipeDto;
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.exception.ValidationException;
+import com.gnomeland.foodlab.validation.RecipeValidator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports a JSON array of recipes element by element. Only the current chunk is held in
+ * memory, and every chunk is committed in its own transaction through
+ * {@link RecipeService#addRecipesBulk}, so a failing chunk does not roll back earlier ones.
+ * A failed chunk is retried row by row, so only the rows that cannot be saved are reported.
+ * Recipe IDs in the input are ignored; every row becomes a new recipe.
+ */
+@Service
+public class RecipeImportService {
+    public static final int IMPORT_CHUNK_SIZE = 500;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private final RecipeService recipeService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RecipeImportService(RecipeService recipeService, ObjectMapper objectMapper) {
+        this.recipeService = recipeService;
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportReportDto importRecipes(InputStream inputStream) throws IOException {
+        ImportReportDto report = new ImportReportDto();
+        List<RecipeDto> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Long> chunkRows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Import body must be a JSON array of recipes");
+            }
+
+            long row = 0;
+            try {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode element = parser.readValueAsTree();
+                    try {
+                        RecipeDto recipeDto = objectMapper.treeToValue(element, RecipeDto.class);
+                        RecipeValidator.validateRecipeDto(recipeDto, false);
+                        chunk.add(recipeDto);
+                        chunkRows.add(row);
+                    } catch (JsonProcessingException e) {
+                        addError(report, row, e.getOriginalMessage());
+                    } catch (ValidationException e) {
+                        addError(report, row, e.getMessage());
+                    }
+                    row++;
+                    report.setProcessed(row);
+
+                    if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                        commitChunk(report, chunk, chunkRows);
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    addError(report, row, "Expected a recipe object");
+                    report.setProcessed(row + 1);
+                } else {
+                    report.setCompleted(true);
+                }
+            } catch (JsonProcessingException e) {
+                addError(report, row, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        commitChunk(report, chunk, chunkRows);
+        logger.info("Импорт рецептов завершён: обработано {}, импортировано {}, ошибок {}",
+                report.getProcessed(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void commitChunk(ImportReportDto report, List<RecipeDto> chunk, List<Long> rows) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            recipeService.addRecipesBulk(chunk);
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException e) {
+            // Пакет откатился целиком: повторяем его построчно, чтобы ошибку получили
+            // только виновные строки, а остальные всё же были импортированы
+            logger.warn("Пакет импорта рецептов отклонён, повтор по одной строке: {}",
+                    e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    recipeService.addRecipesBulk(List.of(chunk.get(i)));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException rowError) {
+                    addError(report, rows.get(i), rowError.getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        rows.clear();
+        logger.info("Импорт рецептов: обработано {}, импортировано {}, ошибок {}",
+                report.getProcessed(), report.getImported(), report.getFailed());
+    }
+
+    private static void addError(ImportReportDto report, long row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            ImportErrorDto error = new ImportErrorDto();
+            error.setRow(row);
+            error.setMessage(message);
+            report.getErrors().add(error);
+        }
+    }
+}
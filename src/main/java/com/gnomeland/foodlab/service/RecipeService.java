@@ -5,30 +5,52 @@ import com.gnomeland.foodlab.dto.CommentDto;
 import com.gnomeland.foodlab.dto.IngredientDto;
 import com.gnomeland.foodlab.dto.RecipeDto;
 import com.gnomeland.foodlab.dto.RecipeIngredientDto;
+import com.gnomeland.foodlab.dto.RecipeSearchResultDto;
+import com.gnomeland.foodlab.dto.ScoredRecipeDto;
 import com.gnomeland.foodlab.dto.UserDto;
+import com.gnomeland.foodlab.exception.BadRequestException;
 import com.gnomeland.foodlab.exception.IngredientAssociatedException;
 import com.gnomeland.foodlab.exception.IngredientException;
 import com.gnomeland.foodlab.exception.RecipeException;
 import com.gnomeland.foodlab.exception.UserAssociatedException;
 import com.gnomeland.foodlab.exception.UserException;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetQuery;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetResult;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.PreparationTimeBucket;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.ProteinBucket;
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex;
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex.SimilarRecipe;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker.TrendingRecipe;
 import com.gnomeland.foodlab.model.Comment;
 import com.gnomeland.foodlab.model.Ingredient;
 import com.gnomeland.foodlab.model.Recipe;
 import com.gnomeland.foodlab.model.RecipeIngredient;
 import com.gnomeland.foodlab.model.User;
+import com.gnomeland.foodlab.repository.CommentRepository;
 import com.gnomeland.foodlab.repository.IngredientRepository;
+import com.gnomeland.foodlab.repository.RecipeIngredientRepository;
 import com.gnomeland.foodlab.repository.RecipeRepository;
 import com.gnomeland.foodlab.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -40,19 +62,60 @@ public class RecipeService {
     private static final String USER_NOT_FOUND_MESSAGE = "The user was not found: ";
     private static final String INGREDIENT_NOT_FOUND_MESSAGE = "The ingredient was not found: ";
     private static final String CACHE_KEY = "recipe_ingredient_";
+    // Совпадает с hibernate.jdbc.batch_size и allocationSize последовательностей
+    private static final int BULK_CHUNK_SIZE = 50;
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
     private final IngredientRepository ingredientRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final CommentRepository commentRepository;
     private final InMemoryCache inMemoryCache;
+    private final RecipeSimilarityIndex recipeSimilarityIndex;
+    private final RecipeCoOccurrenceModel recipeCoOccurrenceModel;
+    private final TrendingRecipeTracker trendingRecipeTracker;
+    private final RecipeFacetIndex recipeFacetIndex;
+    private final ExistenceIndex existenceIndex;
+    private final CommentHashWindow commentHashWindow;
+    private final EntityManager entityManager;
     private static final Logger logger = LoggerFactory.getLogger(RecipeService.class);
 
     @Autowired
     public RecipeService(RecipeRepository recipeRepository, UserRepository userRepository,
-                         IngredientRepository ingredientRepository, InMemoryCache inMemoryCache) {
+                         IngredientRepository ingredientRepository,
+                         RecipeIngredientRepository recipeIngredientRepository,
+                         CommentRepository commentRepository,
+                         InMemoryCache inMemoryCache,
+                         RecipeSimilarityIndex recipeSimilarityIndex,
+                         RecipeCoOccurrenceModel recipeCoOccurrenceModel,
+                         TrendingRecipeTracker trendingRecipeTracker,
+                         RecipeFacetIndex recipeFacetIndex,
+                         ExistenceIndex existenceIndex,
+                         CommentHashWindow commentHashWindow,
+                         EntityManager entityManager) {
         this.recipeRepository = recipeRepository;
         this.userRepository = userRepository;
         this.ingredientRepository = ingredientRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.commentRepository = commentRepository;
         this.inMemoryCache = inMemoryCache;
+        this.recipeSimilarityIndex = recipeSimilarityIndex;
+        this.recipeCoOccurrenceModel = recipeCoOccurrenceModel;
+        this.trendingRecipeTracker = trendingRecipeTracker;
+        this.recipeFacetIndex = recipeFacetIndex;
+        this.existenceIndex = existenceIndex;
+        this.commentHashWindow = commentHashWindow;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIndexes() {
+        recipeSimilarityIndex.clear();
+        recipeFacetIndex.clear();
+        recipeRepository.findAll().forEach(this::reindex);
+        existenceIndex.markRecipesReady();
+        logger.info("Индексы рецептов построены: {} рецептов",
+                recipeSimilarityIndex.size());
     }
 
     public List<RecipeDto> getRecipes(String name) {
@@ -73,44 +136,73 @@ public class RecipeService {
         return convertToDto(recipe);
     }
 
+    /**
+     * Creates a recipe together with its ingredients, which are loaded with one query.
+     */
     @Transactional
     public RecipeDto addRecipe(RecipeDto recipeDto) {
-        Recipe recipe = convertToEntity(recipeDto);
-        return convertToDto(recipeRepository.save(recipe));
+        Map<Integer, Ingredient> ingredientsById = findIngredientsForBulk(List.of(recipeDto));
+        Recipe recipe = recipeRepository.save(convertToEntity(recipeDto, ingredientsById));
+        reindexAfterCommit(List.of(recipe));
+        for (Ingredient ingredient : ingredientsById.values()) {
+            inMemoryCache.remove(CACHE_KEY + ingredient.getName());
+        }
+        return convertToDto(recipe);
     }
 
+    /**
+     * Inserts recipes with their ingredients in chunks: each chunk is flushed as one JDBC
+     * batch and then detached, so the persistence context does not grow with the size of
+     * the request. All referenced ingredients are loaded with a single query up front. IDs
+     * in the DTOs are ignored, and the indexes are updated only after the commit.
+     */
     @Transactional
     public List<RecipeDto> addRecipesBulk(List<RecipeDto> recipeDtos) {
-        return recipeDtos.stream()
-                .map(this::convertToEntity)
-                .map(recipeRepository::save)
-                .map(this::convertToDto)
-                .toList();
+        Map<Integer, Ingredient> ingredientsById = findIngredientsForBulk(recipeDtos);
+        List<Recipe> created = new ArrayList<>(recipeDtos.size());
+
+        for (int from = 0; from < recipeDtos.size(); from += BULK_CHUNK_SIZE) {
+            List<Recipe> chunk = recipeDtos.subList(from,
+                            Math.min(from + BULK_CHUNK_SIZE, recipeDtos.size())).stream()
+                    .map(dto -> convertToEntity(dto, ingredientsById))
+                    .toList();
+            created.addAll(recipeRepository.saveAll(chunk));
+            recipeRepository.flush();
+            entityManager.clear();
+        }
+        reindexAfterCommit(created);
+        for (Ingredient ingredient : ingredientsById.values()) {
+            inMemoryCache.remove(CACHE_KEY + ingredient.getName());
+        }
+        return created.stream().map(this::convertToDto).toList();
     }
 
     @Transactional
     public void deleteRecipeById(Integer id) {
-        Recipe recipe = recipeRepository.findById(id)
-                .orElseThrow(() -> new RecipeException(RECIPE_NOT_FOUND_MESSAGE + id));
-
-        for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
-            Ingredient ingredient = recipeIngredient.getIngredient();
-
-            String key = CACHE_KEY + ingredient.getName();
-            inMemoryCache.remove(key);
-
-            ingredient.getRecipeIngredients().removeIf(ri -> ri.getRecipe().getId().equals(id));
-            ingredientRepository.save(ingredient);
+        if (!recipeRepository.existsById(id)) {
+            throw new RecipeException(RECIPE_NOT_FOUND_MESSAGE + id);
         }
 
-        for (User user : recipe.getUsers()) {
-            user.getSavedRecipes().removeIf(r -> r.getId().equals(id));
-            userRepository.save(user);
-        }
-
-        recipeRepository.deleteById(id);
-
-        ResponseEntity.noContent().build();
+        // Dependent rows go with one DELETE per table; neither the recipe nor its
+        // collections are loaded, so no row-by-row cascades are issued.
+        List<String> ingredientNames = recipeRepository.findIngredientNamesByRecipeId(id);
+        int saves = recipeRepository.deleteSavesByRecipeId(id);
+        recipeIngredientRepository.deleteByRecipeId(id);
+        commentRepository.deleteByRecipeId(id);
+        recipeRepository.deleteRowById(id);
+
+        inMemoryCache.removeAll(ingredientNames.stream().map(CACHE_KEY::concat).toList());
+        // Индексы меняются только после коммита: при откате рецепт остаётся в базе, а
+        // «точно отсутствует» из ExistenceIndex отвечало бы на него 404 до перезапуска
+        AfterCommit.run(() -> {
+            existenceIndex.removeRecipe(id);
+            commentHashWindow.removeRecipe(id);
+            recipeSimilarityIndex.remove(id);
+            recipeFacetIndex.remove(id);
+            recipeCoOccurrenceModel.removeRecipe(id);
+            trendingRecipeTracker.remove(id);
+        });
+        logger.info("Рецепт {} удалён вместе с {} сохранениями", id, saves);
     }
 
     @Transactional
@@ -121,37 +213,62 @@ public class RecipeService {
         recipe.setName(updatedRecipeDto.getName());
         recipe.setPreparationTime(updatedRecipeDto.getPreparationTime());
 
-        Map<Integer, Double> newIngredients = updatedRecipeDto.getRecipeIngredients().stream()
+        List<RecipeIngredientDto> ingredientDtos = updatedRecipeDto.getRecipeIngredients() == null
+                ? List.of() : updatedRecipeDto.getRecipeIngredients();
+        Map<Integer, Double> newIngredients = ingredientDtos.stream()
                 .collect(Collectors.toMap(
                         RecipeIngredientDto::getIngredientId,
                         RecipeIngredientDto::getQuantityInGrams));
 
-        recipe.getRecipeIngredients().removeIf(ri -> {
-            if (newIngredients.containsKey(ri.getIngredient().getId())) {
-                ri.setQuantityInGrams(newIngredients.get(ri.getIngredient().getId()));
-                newIngredients.remove(ri.getIngredient().getId());
-                return false;
+        // Rows that are no longer listed go with one DELETE before the collection is loaded,
+        // so orphan removal has nothing left to delete row by row. Their names are read
+        // first, so only their cached lists are evicted.
+        Set<Integer> keptIds = Set.copyOf(newIngredients.keySet());
+        List<String> removedNames = keptIds.isEmpty()
+                ? recipeRepository.findIngredientNamesByRecipeId(id)
+                : recipeRepository.findIngredientNamesByRecipeIdAndIngredientIdNotIn(id, keptIds);
+        if (!removedNames.isEmpty()) {
+            if (keptIds.isEmpty()) {
+                recipeIngredientRepository.deleteByRecipeId(id);
+            } else {
+                recipeIngredientRepository.deleteByRecipeIdAndIngredientIdNotIn(id, keptIds);
             }
-            return true;
-        });
+        }
 
-        newIngredients.forEach((ingId, grams) -> {
-            RecipeIngredient ri = new RecipeIngredient();
-            ri.setRecipe(recipe);
-            ri.setIngredient(ingredientRepository.findById(ingId)
-                    .orElseThrow(() -> new IngredientException(INGREDIENT_NOT_FOUND_MESSAGE + id)));
-            ri.setQuantityInGrams(grams);
-            recipe.getRecipeIngredients().add(ri);
-        });
+        // Changed quantities are flushed as one JDBC batch of UPDATEs.
+        for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
+            Double grams = newIngredients.remove(recipeIngredient.getIngredient().getId());
+            if (grams != null) {
+                recipeIngredient.setQuantityInGrams(grams);
+            }
+        }
+
+        if (!newIngredients.isEmpty()) {
+            Map<Integer, Ingredient> ingredientsById = ingredientRepository
+                    .findAllById(Set.copyOf(newIngredients.keySet())).stream()
+                    .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+            newIngredients.forEach((ingredientId, grams) -> {
+                Ingredient ingredient = ingredientsById.get(ingredientId);
+                if (ingredient == null) {
+                    throw new IngredientException(INGREDIENT_NOT_FOUND_MESSAGE + ingredientId);
+                }
+                RecipeIngredient recipeIngredient = new RecipeIngredient();
+                recipeIngredient.setRecipe(recipe);
+                recipeIngredient.setIngredient(ingredient);
+                recipeIngredient.setQuantityInGrams(grams);
+                recipe.getRecipeIngredients().add(recipeIngredient);
+            });
+        }
 
         Recipe updatedRecipe = recipeRepository.save(recipe);
+        reindexAfterCommit(List.of(recipe));
 
+        List<String> cacheKeys = new ArrayList<>();
+        removedNames.forEach(name -> cacheKeys.add(CACHE_KEY + name));
         for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
-            Ingredient ingredient = recipeIngredient.getIngredient();
-
-            String key = CACHE_KEY + ingredient.getName();
-            inMemoryCache.remove(key);
+            cacheKeys.add(CACHE_KEY + recipeIngredient.getIngredient().getName());
         }
+        inMemoryCache.removeAll(cacheKeys);
 
         return convertToDto(updatedRecipe);
     }
@@ -169,6 +286,7 @@ public class RecipeService {
         }
 
         Recipe updatedRecipe = recipeRepository.save(recipe);
+        recipeFacetIndex.update(recipe);
 
         for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
             Ingredient ingredient = recipeIngredient.getIngredient();
@@ -227,40 +345,49 @@ public class RecipeService {
         return recipe.getUsers().stream().map(this::convertToDto).toList();
     }
 
+    /**
+     * Saves the recipe for the user with a single indexed INSERT on {@code recipe_users};
+     * neither side's collection is loaded, so the cost does not grow with the number of
+     * savers.
+     */
+    @Transactional
     public ResponseEntity<String> addUserToRecipe(Integer recipeId, Integer userId) {
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(()
-                        -> new RecipeException(RECIPE_NOT_FOUND_MESSAGE + recipeId));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserException(USER_NOT_FOUND_MESSAGE + userId));
+        requireRecipeAndUser(recipeId, userId);
 
-        if (recipe.getUsers().contains(user)) {
+        if (recipeRepository.insertSave(recipeId, userId) == 0) {
             throw new UserAssociatedException("User is already associated with this recipe.");
         }
-
-        recipe.getUsers().add(user);
-        user.getSavedRecipes().add(recipe);
-
-        recipeRepository.save(recipe);
-        userRepository.save(user);
+        AfterCommit.run(() -> {
+            recipeCoOccurrenceModel.addSave(userId, recipeId);
+            trendingRecipeTracker.recordSave(recipeId);
+        });
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Transactional
     public ResponseEntity<Void> removeUserFromRecipe(Integer recipeId, Integer userId) {
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new RecipeException(RECIPE_NOT_FOUND_MESSAGE + recipeId));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserException(USER_NOT_FOUND_MESSAGE + userId));
-        recipe.getUsers().remove(user);
-        user.getSavedRecipes().remove(recipe);
+        requireRecipeAndUser(recipeId, userId);
 
-        recipeRepository.save(recipe);
-        userRepository.save(user);
+        if (recipeRepository.deleteSave(recipeId, userId) > 0) {
+            AfterCommit.run(() -> recipeCoOccurrenceModel.removeSave(userId, recipeId));
+        }
 
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    private void requireRecipeAndUser(Integer recipeId, Integer userId) {
+        if (!existenceIndex.isRecipePresent(recipeId)
+                && (existenceIndex.isRecipeAbsent(recipeId)
+                || !recipeRepository.existsById(recipeId))) {
+            throw new RecipeException(RECIPE_NOT_FOUND_MESSAGE + recipeId);
+        }
+        if (!existenceIndex.isUserPresent(userId)
+                && (existenceIndex.isUserAbsent(userId) || !userRepository.existsById(userId))) {
+            throw new UserException(USER_NOT_FOUND_MESSAGE + userId);
+        }
+    }
+
     public ResponseEntity<String> addIngredientToRecipe(Integer recipeId, Integer ingredientId,
                                                         Double quantityInGrams) {
         Recipe recipe = recipeRepository.findById(recipeId)
@@ -284,6 +411,7 @@ public class RecipeService {
 
         recipe.getRecipeIngredients().add(recipeIngredient);
         recipeRepository.save(recipe);
+        reindex(recipe);
 
         for (RecipeIngredient recipeIngredients : recipe.getRecipeIngredients()) {
             Ingredient recIngredients = recipeIngredients.getIngredient();
@@ -312,6 +440,7 @@ public class RecipeService {
 
         recipe.getRecipeIngredients().remove(recipeIngredient);
         recipeRepository.save(recipe);
+        reindex(recipe);
 
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
@@ -325,11 +454,108 @@ public class RecipeService {
                 .toList();
     }
 
+    public List<ScoredRecipeDto> getSimilarRecipes(Integer recipeId, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be a positive number");
+        }
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new RecipeException(RECIPE_NOT_FOUND_MESSAGE + recipeId);
+        }
+
+        List<SimilarRecipe> similarRecipes = recipeSimilarityIndex.findSimilar(recipeId, limit);
+        return RankedEntities.load(similarRecipes, SimilarRecipe::recipeId,
+                recipeRepository::findAllById, Recipe::getId,
+                (similar, recipe) -> convertToDto(recipe, similar.similarity()));
+    }
+
+    public List<ScoredRecipeDto> getTrendingRecipes(int limit) {
+        if (limit < 1 || limit > TrendingRecipeTracker.MAX_LEADERBOARD_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and "
+                    + TrendingRecipeTracker.MAX_LEADERBOARD_SIZE);
+        }
+
+        List<TrendingRecipe> trendingRecipes = trendingRecipeTracker.top(limit);
+        return RankedEntities.load(trendingRecipes, TrendingRecipe::recipeId,
+                recipeRepository::findAllById, Recipe::getId,
+                (trending, recipe) -> convertToDto(recipe, trending.score()));
+    }
+
+    public RecipeSearchResultDto searchRecipes(String name, List<Integer> ingredientIds,
+                                               String preparationTime, String protein,
+                                               int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be a positive number");
+        }
+        PreparationTimeBucket preparationTimeBucket = preparationTime == null ? null
+                : PreparationTimeBucket.fromLabel(preparationTime).orElseThrow(() ->
+                        new BadRequestException("Unknown preparation time bucket: "
+                                + preparationTime));
+        ProteinBucket proteinBucket = protein == null ? null
+                : ProteinBucket.fromLabel(protein).orElseThrow(() ->
+                        new BadRequestException("Unknown protein bucket: " + protein));
+
+        FacetResult result = recipeFacetIndex.search(new FacetQuery(name,
+                ingredientIds == null ? List.of() : ingredientIds,
+                preparationTimeBucket, proteinBucket), limit);
+        RecipeSearchResultDto dto = new RecipeSearchResultDto();
+        dto.setTotal(result.total());
+        dto.setRecipes(RankedEntities.load(result.hitIds(), Function.identity(),
+                recipeRepository::findAllById, Recipe::getId,
+                (id, recipe) -> convertToDtoWithoutUsersAndComments(recipe)));
+        dto.setIngredientCounts(result.ingredientCounts());
+        dto.setPreparationTimeCounts(result.preparationTimeCounts());
+        dto.setProteinCounts(result.proteinCounts());
+        return dto;
+    }
+
+    private Map<Integer, Ingredient> findIngredientsForBulk(List<RecipeDto> recipeDtos) {
+        Set<Integer> ingredientIds = recipeDtos.stream()
+                .filter(dto -> dto.getRecipeIngredients() != null)
+                .flatMap(dto -> dto.getRecipeIngredients().stream())
+                .map(RecipeIngredientDto::getIngredientId)
+                .collect(Collectors.toSet());
+        if (ingredientIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, Ingredient> ingredientsById = ingredientRepository
+                .findAllById(ingredientIds).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        for (Integer ingredientId : ingredientIds) {
+            if (!ingredientsById.containsKey(ingredientId)) {
+                throw new IngredientException(INGREDIENT_NOT_FOUND_MESSAGE + ingredientId);
+            }
+        }
+        return ingredientsById;
+    }
+
+    private void reindex(Recipe recipe) {
+        recipeSimilarityIndex.update(recipe.getId(), recipe.getRecipeIngredients().stream()
+                .map(ri -> ri.getIngredient().getId())
+                .toList());
+        recipeFacetIndex.update(recipe);
+        existenceIndex.addRecipe(recipe.getId());
+    }
+
+    private void reindexAfterCommit(List<Recipe> recipes) {
+        AfterCommit.run(() -> recipes.forEach(this::reindex));
+    }
+
+    private ScoredRecipeDto convertToDto(Recipe recipe, double score) {
+        ScoredRecipeDto dto = new ScoredRecipeDto();
+        dto.setId(recipe.getId());
+        dto.setName(recipe.getName());
+        dto.setPreparationTime(recipe.getPreparationTime());
+        dto.setScore(score);
+        return dto;
+    }
+
     private RecipeDto convertToDto(Recipe recipe, boolean includeUsers, boolean includeComments) {
         RecipeDto recipeDto = new RecipeDto();
         recipeDto.setId(recipe.getId());
         recipeDto.setName(recipe.getName());
         recipeDto.setPreparationTime(recipe.getPreparationTime());
+        recipeDto.setSaveCount(recipe.getSaveCount());
 
         if (recipe.getRecipeIngredients() != null) {
             List<RecipeIngredientDto> recipeIngredientDtos = recipe.getRecipeIngredients().stream()
@@ -400,11 +626,20 @@ public class RecipeService {
         return convertToDto(recipe, false, false);
     }
 
-    private Recipe convertToEntity(RecipeDto recipeDto) {
+    private Recipe convertToEntity(RecipeDto recipeDto, Map<Integer, Ingredient> ingredientsById) {
+        // id из запроса не переносится: save() с существующим id перезаписал бы чужой рецепт
         Recipe recipe = new Recipe();
-        recipe.setId(recipeDto.getId());
         recipe.setName(recipeDto.getName());
         recipe.setPreparationTime(recipeDto.getPreparationTime());
+        if (recipeDto.getRecipeIngredients() != null) {
+            for (RecipeIngredientDto dto : recipeDto.getRecipeIngredients()) {
+                RecipeIngredient recipeIngredient = new RecipeIngredient();
+                recipeIngredient.setRecipe(recipe);
+                recipeIngredient.setIngredient(ingredientsById.get(dto.getIngredientId()));
+                recipeIngredient.setQuantityInGrams(dto.getQuantityInGrams());
+                recipe.getRecipeIngredients().add(recipeIngredient);
+            }
+        }
         return recipe;
     }
 }
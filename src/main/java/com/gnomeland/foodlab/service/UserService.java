@@ -2,16 +2,30 @@ package com.gnomeland.foodlab.service;
 
 import com.gnomeland.foodlab.dto.CommentDto;
 import com.gnomeland.foodlab.dto.RecipeDto;
+import com.gnomeland.foodlab.dto.ScoredRecipeDto;
 import com.gnomeland.foodlab.dto.UserDto;
+import com.gnomeland.foodlab.exception.BadRequestException;
 import com.gnomeland.foodlab.exception.UserException;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel.ScoredRecipe;
 import com.gnomeland.foodlab.model.Comment;
 import com.gnomeland.foodlab.model.Recipe;
 import com.gnomeland.foodlab.model.User;
+import com.gnomeland.foodlab.repository.CommentRepository;
 import com.gnomeland.foodlab.repository.RecipeRepository;
 import com.gnomeland.foodlab.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -23,11 +37,68 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RecipeRepository recipeRepository;
+    private final CommentRepository commentRepository;
+    private final RecipeCoOccurrenceModel recipeCoOccurrenceModel;
+    private final ExistenceIndex existenceIndex;
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     @Autowired
-    public UserService(UserRepository userRepository, RecipeRepository recipeRepository) {
+    public UserService(UserRepository userRepository, RecipeRepository recipeRepository,
+                       CommentRepository commentRepository,
+                       RecipeCoOccurrenceModel recipeCoOccurrenceModel,
+                       ExistenceIndex existenceIndex) {
         this.userRepository = userRepository;
         this.recipeRepository = recipeRepository;
+        this.commentRepository = commentRepository;
+        this.recipeCoOccurrenceModel = recipeCoOccurrenceModel;
+        this.existenceIndex = existenceIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildExistenceIndex() {
+        List<Object[]> identities = userRepository.findAllIdentities();
+        for (Object[] identity : identities) {
+            existenceIndex.addUser((Integer) identity[0], (String) identity[1],
+                    (String) identity[2]);
+        }
+        existenceIndex.markUsersReady();
+        logger.info("Фильтры существования пользователей построены: {} пользователей",
+                identities.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildRecommendationModel() {
+        Map<Integer, int[]> savedRecipesByUser = recipeRepository.findAllUserRecipePairs().stream()
+                .collect(Collectors.groupingBy(
+                        pair -> ((Number) pair[0]).intValue(),
+                        Collectors.mapping(pair -> ((Number) pair[1]).intValue(),
+                                Collectors.toList())))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray()));
+
+        recipeCoOccurrenceModel.rebuild(savedRecipesByUser);
+        logger.info("Модель рекомендаций построена: {} пользователей", savedRecipesByUser.size());
+    }
+
+    public List<ScoredRecipeDto> getRecommendations(Integer userId, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be a positive number");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new UserException(USER_NOT_FOUND_MESSAGE + userId);
+        }
+
+        Set<Integer> savedRecipeIds = new HashSet<>(
+                recipeRepository.findSavedRecipeIdsByUserId(userId));
+        List<ScoredRecipe> scoredRecipes = recipeCoOccurrenceModel.recommend(userId, limit)
+                .stream()
+                .filter(scored -> !savedRecipeIds.contains(scored.recipeId()))
+                .toList();
+        return RankedEntities.load(scoredRecipes, ScoredRecipe::recipeId,
+                recipeRepository::findAllById, Recipe::getId,
+                (scored, recipe) -> convertToDto(recipe, scored.score()));
     }
 
     public List<UserDto> getUsers(String userName, String email) {
@@ -56,28 +127,39 @@ public class UserService {
 
     public UserDto addUser(UserDto userDto) {
         User user = convertToEntity(userDto);
-        if (!userRepository.findByUsernameIgnoreCase(user.getUsername()).isEmpty()) {
+        // A lookup is only needed when the filters cannot rule the name out.
+        if (!existenceIndex.isUsernameAbsent(user.getUsername())
+                && !userRepository.findByUsernameIgnoreCase(user.getUsername()).isEmpty()) {
             throw new IllegalArgumentException(USER_EXISTS_MESSAGE + user.getUsername());
         }
-        if (!userRepository.findByEmailIgnoreCase(user.getEmail()).isEmpty()) {
+        if (!existenceIndex.isEmailAbsent(user.getEmail())
+                && !userRepository.findByEmailIgnoreCase(user.getEmail()).isEmpty()) {
             throw new IllegalArgumentException(USER_EXISTS_MESSAGE + user.getEmail());
         }
         User savedUser = userRepository.save(user);
+        existenceIndex.addUser(savedUser.getId(), savedUser.getUsername(),
+                savedUser.getEmail());
 
         return convertToDto(savedUser);
     }
 
     @Transactional
     public ResponseEntity<String> deleteUserById(Integer id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserException(USER_NOT_FOUND_MESSAGE + id));
-
-        for (Recipe recipe : user.getSavedRecipes()) {
-            recipe.getUsers().remove(user);
-            recipeRepository.save(recipe);
+        if (!userRepository.existsById(id)) {
+            throw new UserException(USER_NOT_FOUND_MESSAGE + id);
         }
 
-        userRepository.deleteById(id);
+        int saves = recipeRepository.deleteSavesByUserId(id);
+        commentRepository.deleteByUserId(id);
+        userRepository.deleteRowById(id);
+
+        // Индексы меняются только после коммита, иначе откат оставил бы пользователя
+        // в базе, но «точно отсутствующим» для ExistenceIndex
+        AfterCommit.run(() -> {
+            existenceIndex.removeUser(id);
+            recipeCoOccurrenceModel.removeUser(id);
+        });
+        logger.info("Пользователь {} удалён вместе с {} сохранениями", id, saves);
         return ResponseEntity.noContent().build();
     }
 
@@ -91,6 +173,7 @@ public class UserService {
         user.setPassword(updatedUserDto.getPassword());
 
         User updatedUser = userRepository.save(user);
+        existenceIndex.addUser(id, updatedUser.getUsername(), updatedUser.getEmail());
 
         return convertToDto(updatedUser);
     }
@@ -113,6 +196,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        existenceIndex.addUser(id, updatedUser.getUsername(), updatedUser.getEmail());
 
         return convertToDto(updatedUser);
     }
@@ -162,6 +246,15 @@ public class UserService {
         return recipeDto;
     }
 
+    private ScoredRecipeDto convertToDto(Recipe recipe, double score) {
+        ScoredRecipeDto dto = new ScoredRecipeDto();
+        dto.setId(recipe.getId());
+        dto.setName(recipe.getName());
+        dto.setPreparationTime(recipe.getPreparationTime());
+        dto.setScore(score);
+        return dto;
+    }
+
     private User convertToEntity(UserDto userDto) {
         User user = new User();
         user.setId(userDto.getId());
@@ -1,8 +1,12 @@
 package com.gnomeland.foodlab.validation;
 
 import com.gnomeland.foodlab.dto.RecipeDto;
+import com.gnomeland.foodlab.dto.RecipeIngredientDto;
 import com.gnomeland.foodlab.exception.ValidationException;
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class RecipeValidator {
     private static final int MIN_NAME_LENGTH = 2;
@@ -21,6 +25,7 @@ public class RecipeValidator {
             validateMandatoryFields(recipeDto);
             validateName(recipeDto.getName());
             validateDuration(recipeDto.getPreparationTime());
+            validateRecipeIngredients(recipeDto.getRecipeIngredients());
         } else {
             if (recipeDto.getName() != null) {
                 validateName(recipeDto.getName());
@@ -63,6 +68,26 @@ public class RecipeValidator {
         }
     }
 
+    private static void validateRecipeIngredients(List<RecipeIngredientDto> recipeIngredients) {
+        if (recipeIngredients == null) {
+            return;
+        }
+        Set<Integer> ingredientIds = new HashSet<>();
+        for (RecipeIngredientDto recipeIngredient : recipeIngredients) {
+            if (recipeIngredient == null || recipeIngredient.getIngredientId() == null) {
+                throw new ValidationException("Ingredient ID is required");
+            }
+            if (!ingredientIds.add(recipeIngredient.getIngredientId())) {
+                throw new ValidationException("Duplicate ingredient in recipe: "
+                        + recipeIngredient.getIngredientId());
+            }
+            Double quantity = recipeIngredient.getQuantityInGrams();
+            if (quantity == null || quantity <= 0) {
+                throw new ValidationException("Quantity in grams must be positive");
+            }
+        }
+    }
+
     private static boolean isNullOrEmpty(String str) {
         return str == null || str.trim().isEmpty();
     }
@@ -0,0 +1,38 @@
+-- data.sql runs on every start. Backfills that scan whole tables run once: they are guarded
+-- by a row in data_migrations, which is written at the end of this script.
+CREATE TABLE IF NOT EXISTS data_migrations (
+    version INTEGER PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL DEFAULT now()
+);
+-- Recipes and recipe ingredients used IDENTITY columns before; move the pooled sequences
+-- past existing rows so that allocated ID blocks never collide with them. Afterwards every
+-- ID comes from the sequences, so this is needed once.
+SELECT setval('recipes_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM recipes) + 50,
+        (SELECT last_value FROM recipes_seq)))
+WHERE NOT EXISTS (SELECT 1 FROM data_migrations WHERE version = 1);
+SELECT setval('recipe_ingredients_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM recipe_ingredients) + 50,
+        (SELECT last_value FROM recipe_ingredients_seq)))
+WHERE NOT EXISTS (SELECT 1 FROM data_migrations WHERE version = 1);
+-- Case-insensitive ingredient lookups (findByNameIgnoreCase, bulk CSV import).
+CREATE INDEX IF NOT EXISTS idx_ingredients_lower_name ON ingredients (lower(name));
+-- Duplicate comments are found by (recipe_id, user_id, text_hash); the hash is the first
+-- 64 bits of md5(text), the same value CommentHashWindow.contentHash computes.
+-- Comments written by the application already carry the hash, so old rows are filled once.
+UPDATE comments SET text_hash = ('x' || substr(md5(text), 1, 16))::bit(64)::bigint
+WHERE text_hash IS NULL AND text IS NOT NULL
+    AND NOT EXISTS (SELECT 1 FROM data_migrations WHERE version = 1);
+CREATE INDEX IF NOT EXISTS idx_comments_recipe_user_hash
+    ON comments (recipe_id, user_id, text_hash);
+-- Saves are inserted with ON CONFLICT DO NOTHING, which needs a unique (recipe_id, user_id);
+-- duplicates left by the old bag mapping are dropped first. save_count mirrors the row count.
+DELETE FROM recipe_users a USING recipe_users b
+WHERE a.ctid < b.ctid AND a.recipe_id = b.recipe_id AND a.user_id = b.user_id
+    AND NOT EXISTS (SELECT 1 FROM data_migrations WHERE version = 1);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_recipe_users ON recipe_users (recipe_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_recipe_users_user ON recipe_users (user_id);
+UPDATE recipes r SET save_count = (SELECT COUNT(*) FROM recipe_users ru WHERE ru.recipe_id = r.id)
+WHERE r.save_count IS NULL AND NOT EXISTS (SELECT 1 FROM data_migrations WHERE version = 1);
+-- New rows get save_count and a unique save from the application, so this runs only once.
+INSERT INTO data_migrations (version) VALUES (1) ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,76 @@
+package com.gnomeland.foodlab;
+
+import com.gnomeland.foodlab.dto.RecipeDto;
+import com.gnomeland.foodlab.model.Recipe;
+import com.gnomeland.foodlab.repository.RecipeRepository;
+import com.gnomeland.foodlab.service.RecipeService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares rows per second of inserting recipes one by one (one INSERT round trip each)
+ * with {@link RecipeService#addRecipesBulk} (JDBC batches of pooled sequence IDs). Needs the
+ * PostgreSQL database from application.properties; the inserted rows are rolled back.
+ */
+@Disabled("Benchmark: needs a PostgreSQL database, run it by hand")
+@SpringBootTest
+@Transactional
+class RecipeBulkInsertBenchmarkTests {
+    private static final int ROWS = 5_000;
+    private static final int WARMUP_ROWS = 500;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    void compareSingleInsertsWithBulkInsert() {
+        insertOneByOne(recipes(WARMUP_ROWS));
+        recipeService.addRecipesBulk(recipes(WARMUP_ROWS));
+
+        long singleNanos = insertOneByOne(recipes(ROWS));
+        long bulkStart = System.nanoTime();
+        recipeService.addRecipesBulk(recipes(ROWS));
+        long bulkNanos = System.nanoTime() - bulkStart;
+
+        System.out.printf("По одной: %d строк/с, пакетами: %d строк/с%n",
+                rowsPerSecond(singleNanos), rowsPerSecond(bulkNanos));
+    }
+
+    /**
+     * The insert path before batching: every recipe is saved and flushed on its own.
+     */
+    private long insertOneByOne(List<RecipeDto> dtos) {
+        long start = System.nanoTime();
+        for (RecipeDto dto : dtos) {
+            Recipe recipe = new Recipe();
+            recipe.setName(dto.getName());
+            recipe.setPreparationTime(dto.getPreparationTime());
+            recipeRepository.saveAndFlush(recipe);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<RecipeDto> recipes(int count) {
+        List<RecipeDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RecipeDto dto = new RecipeDto();
+            dto.setName("Benchmark " + i);
+            dto.setPreparationTime(Duration.ofMinutes(30));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / Math.max(1, nanos);
+    }
+}
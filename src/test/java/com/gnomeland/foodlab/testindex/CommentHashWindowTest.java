@@ -0,0 +1,59 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentHashWindowTest {
+
+    private CommentHashWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new CommentHashWindow();
+    }
+
+    @Test
+    void contentHash_shouldMatchMd5PrefixUsedBySql() {
+        // md5('') = d41d8cd98f00b204e9800998ecf8427e
+        assertEquals(0xd41d8cd98f00b204L, CommentHashWindow.contentHash(""));
+        assertEquals(CommentHashWindow.contentHash("Вкусно!"),
+                CommentHashWindow.contentHash("Вкусно!"));
+        assertNotEquals(CommentHashWindow.contentHash("Tasty"),
+                CommentHashWindow.contentHash("tasty"));
+    }
+
+    @Test
+    void contains_shouldMatchRecipeUserAndHash() {
+        long hash = CommentHashWindow.contentHash("Tasty");
+        window.add(1, 2, hash);
+
+        assertTrue(window.contains(1, 2, hash));
+        assertFalse(window.contains(1, 3, hash));
+        assertFalse(window.contains(2, 2, hash));
+    }
+
+    @Test
+    void add_shouldEvictOldestEntryWhenWindowIsFull() {
+        for (int i = 0; i <= CommentHashWindow.WINDOW_SIZE; i++) {
+            window.add(1, 1, i);
+        }
+
+        assertFalse(window.contains(1, 1, 0));
+        assertTrue(window.contains(1, 1, 1));
+        assertTrue(window.contains(1, 1, CommentHashWindow.WINDOW_SIZE));
+    }
+
+    @Test
+    void remove_shouldForgetUpdatedOrDeletedComments() {
+        window.add(1, 1, 42);
+        window.add(2, 1, 42);
+
+        window.remove(1, 1, 42);
+        window.removeRecipe(2);
+
+        assertFalse(window.contains(1, 1, 42));
+        assertFalse(window.contains(2, 1, 42));
+    }
+}
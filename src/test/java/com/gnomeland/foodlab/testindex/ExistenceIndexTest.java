@@ -0,0 +1,85 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.BloomFilter;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExistenceIndexTest {
+
+    private ExistenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExistenceIndex(1000);
+    }
+
+    @Test
+    void shouldAnswerNothingUntilReady() {
+        index.addRecipe(1);
+        index.addUser(2, "Alice", "alice@example.com");
+
+        assertFalse(index.isRecipePresent(1));
+        assertFalse(index.isRecipeAbsent(5));
+        assertFalse(index.isUserAbsent(7));
+        assertFalse(index.isUsernameAbsent("bob"));
+    }
+
+    @Test
+    void ids_shouldGiveDefiniteAnswersBothWays() {
+        index.addRecipe(1);
+        index.addRecipe(300);
+        index.markRecipesReady();
+
+        assertTrue(index.isRecipePresent(300));
+        assertTrue(index.isRecipeAbsent(2));
+        assertFalse(index.isRecipePresent(null));
+        assertFalse(index.isRecipeAbsent(null));
+        assertFalse(index.isRecipeAbsent(-1));
+
+        index.removeRecipe(300);
+
+        assertTrue(index.isRecipeAbsent(300));
+    }
+
+    @Test
+    void names_shouldBeCaseInsensitiveAndNeverFalselyAbsent() {
+        index.addUser(1, "Alice", "Alice@Example.com");
+        index.markUsersReady();
+
+        assertFalse(index.isUsernameAbsent("ALICE"));
+        assertFalse(index.isEmailAbsent("alice@example.com"));
+        assertTrue(index.isUsernameAbsent("bob"));
+        assertTrue(index.isUserPresent(1));
+        assertTrue(index.isUserAbsent(2));
+    }
+
+    @Test
+    void ingredientNames_shouldFallThroughOnlyForMaybe() {
+        index.addIngredientName("Tomato");
+        index.markIngredientsReady();
+
+        assertFalse(index.isIngredientNameAbsent("tomato"));
+        assertTrue(index.isIngredientNameAbsent("cucumber"));
+    }
+
+    @Test
+    void bloomFilter_shouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
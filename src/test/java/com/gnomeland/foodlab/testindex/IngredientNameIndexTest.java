@@ -0,0 +1,123 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.IngredientNameIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex.NameMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientNameIndexTest {
+
+    private IngredientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientNameIndex();
+        index.put(1, "Tomato");
+        index.put(2, "Chicken");
+        index.put(3, "Potato");
+        index.put(4, "Chickpea");
+    }
+
+    @Test
+    void search_shouldFindTyposWithinTwoEdits() {
+        assertEquals(List.of(new NameMatch(1, "tomato", 1)), index.search("tomatoe", 2));
+        assertEquals(2, index.search("chiken", 2).getFirst().ingredientId());
+        assertEquals(2, index.search("cihcken", 2).getFirst().ingredientId());
+        assertTrue(index.search("banana", 2).isEmpty());
+    }
+
+    @Test
+    void search_shouldRankClosestFirst() {
+        List<NameMatch> result = index.search("potato", 2);
+
+        assertEquals(3, result.get(0).ingredientId());
+        assertEquals(0, result.get(0).distance());
+        assertEquals(1, result.get(1).ingredientId());
+        assertEquals(2, result.get(1).distance());
+    }
+
+    @Test
+    void put_shouldReplacePreviousName() {
+        index.put(1, "Tomatillo");
+
+        assertTrue(index.search("tomato", 1).isEmpty());
+        assertEquals(1, index.search("tomatilo", 2).getFirst().ingredientId());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_shouldKeepOtherIngredientsWithSameName() {
+        index.put(5, "tomato");
+
+        index.remove(1);
+
+        assertEquals(List.of(new NameMatch(5, "tomato", 0)), index.search("Tomato", 1));
+    }
+
+    @Test
+    void editDistance_shouldCountTranspositionAsOneEdit() {
+        assertEquals(1, IngredientNameIndex.editDistance("ab", "ba", 2));
+        assertEquals(2, IngredientNameIndex.editDistance("kitten", "sittin", 2));
+        assertEquals(3, IngredientNameIndex.editDistance("kitten", "sitting", 2));
+    }
+
+    @Test
+    void search_shouldMatchBruteForceAndStayFast() {
+        Random random = new Random(11);
+        Map<Integer, String> names = new HashMap<>();
+        for (int id = 1; id <= 5000; id++) {
+            String name = randomWord(random, 4 + random.nextInt(8));
+            names.put(id, name);
+            index.put(id + 100, name);
+        }
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            queries.add(mutate(random, names.get(1 + random.nextInt(names.size()))));
+        }
+        for (String query : queries) {
+            Set<Integer> expected = new TreeSet<>();
+            names.forEach((id, name) -> {
+                if (IngredientNameIndex.editDistance(query, name, 2) <= 2) {
+                    expected.add(id + 100);
+                }
+            });
+            Set<Integer> actual = new TreeSet<>();
+            index.search(query, 2).stream()
+                    .filter(match -> match.ingredientId() > 100)
+                    .forEach(match -> actual.add(match.ingredientId()));
+            assertEquals(expected, actual, query);
+        }
+
+        long start = System.nanoTime();
+        for (String query : queries) {
+            index.search(query, 2);
+        }
+        long averageMicros = (System.nanoTime() - start) / queries.size() / 1000;
+        assertTrue(averageMicros < 1000, "average search took " + averageMicros + "us");
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    private static String mutate(Random random, String word) {
+        StringBuilder builder = new StringBuilder(word);
+        int edits = random.nextInt(3);
+        for (int i = 0; i < edits && builder.length() > 1; i++) {
+            int position = random.nextInt(builder.length());
+            switch (random.nextInt(3)) {
+                case 0 -> builder.deleteCharAt(position);
+                case 1 -> builder.insert(position, (char) ('a' + random.nextInt(26)));
+                default -> builder.setCharAt(position, (char) ('a' + random.nextInt(26)));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.index.LogOffsetIndex.LogSlice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogOffsetIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private LogOffsetIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = dir.resolve("application.log");
+        Files.writeString(logFile, ""
+                + "2025-02-28 23:59:59 [main] INFO  Foo - late\n"
+                + "2025-03-01 00:00:01 [main] INFO  Foo - first\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n"
+                + "2025-03-01 13:30:00 [main] WARN  Foo - second\n"
+                + "2025-03-02 00:00:00 [main] INFO  Foo - next day\n");
+        index = new LogOffsetIndex(logFile.toString());
+    }
+
+    @Test
+    void openDay_shouldReturnOnlyLinesOfThatDayWithContinuations() throws IOException {
+        assertEquals(""
+                + "2025-03-01 00:00:01 [main] INFO  Foo - first\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n"
+                + "2025-03-01 13:30:00 [main] WARN  Foo - second\n", read(DAY));
+        assertEquals("2025-03-02 00:00:00 [main] INFO  Foo - next day\n",
+                read(DAY.plusDays(1)));
+        assertTrue(index.openDay(DAY.plusDays(5)).isEmpty());
+    }
+
+    @Test
+    void openDay_shouldPickUpAppendedLinesButNotAnUnfinishedTail() throws IOException {
+        append("2025-03-02 01:00:00 [main] INFO  Foo - more\n2025-03-03 00:00:00 [main] IN");
+
+        assertEquals("2025-03-02 00:00:00 [main] INFO  Foo - next day\n"
+                + "2025-03-02 01:00:00 [main] INFO  Foo - more\n", read(DAY.plusDays(1)));
+        assertTrue(index.openDay(DAY.plusDays(2)).isEmpty());
+
+        append("FO  Foo - done\n");
+
+        assertEquals("2025-03-03 00:00:00 [main] INFO  Foo - done\n", read(DAY.plusDays(2)));
+    }
+
+    @Test
+    void openDay_shouldResumeFromSidecarAfterRestart() throws IOException {
+        index.refresh();
+        assertTrue(Files.readString(dir.resolve("application.log.idx"))
+                .contains("2025-03-01 13\t"));
+
+        append("2025-03-02 05:00:00 [main] INFO  Foo - after restart\n");
+        LogOffsetIndex restarted = new LogOffsetIndex(logFile.toString());
+
+        assertEquals("2025-03-02 00:00:00 [main] INFO  Foo - next day\n"
+                + "2025-03-02 05:00:00 [main] INFO  Foo - after restart\n",
+                read(restarted, DAY.plusDays(1)));
+        assertEquals(5, Files.readAllLines(dir.resolve("application.log.idx")).size() - 1);
+    }
+
+    @Test
+    void openDay_shouldResetWhenFileIsReplaced() throws IOException {
+        assertFalse(read(DAY).isEmpty());
+
+        Files.delete(logFile);
+        Files.writeString(logFile, "2025-03-05 10:00:00 [main] INFO  Foo - rolled\n");
+
+        assertTrue(index.openDay(DAY).isEmpty());
+        assertEquals("2025-03-05 10:00:00 [main] INFO  Foo - rolled\n", read(DAY.plusDays(4)));
+    }
+
+    @Test
+    void openWindow_shouldCoverOnlyTheOverlappingHours() throws IOException {
+        Optional<LogSlice> slice = index.openWindow(LocalDateTime.of(2025, 3, 1, 12, 15),
+                LocalDateTime.of(2025, 3, 1, 13, 45));
+        assertTrue(slice.isPresent());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LogSlice opened = slice.get()) {
+            opened.newInputStream().transferTo(out);
+        }
+
+        assertEquals("2025-03-01 13:30:00 [main] WARN  Foo - second\n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(index.openWindow(LocalDateTime.of(2025, 3, 1, 2, 0),
+                LocalDateTime.of(2025, 3, 1, 13, 0)).isEmpty());
+    }
+
+    private void append(String text) throws IOException {
+        Files.writeString(logFile, text, StandardOpenOption.APPEND);
+    }
+
+    private String read(LocalDate day) throws IOException {
+        return read(index, day);
+    }
+
+    private static String read(LogOffsetIndex source, LocalDate day) throws IOException {
+        Optional<LogSlice> slice = source.openDay(day);
+        assertTrue(slice.isPresent(), day.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LogSlice opened = slice.get()) {
+            opened.transferTo(Channels.newChannel(out));
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel.ScoredRecipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCoOccurrenceModelTest {
+
+    private RecipeCoOccurrenceModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new RecipeCoOccurrenceModel();
+    }
+
+    @Test
+    void recommend_shouldReturnCoSavedRecipes() {
+        model.addSave(1, 10);
+        model.addSave(1, 20);
+        model.addSave(2, 10);
+        model.addSave(2, 20);
+        model.addSave(3, 10);
+        model.addSave(3, 30);
+        model.addSave(4, 10);
+
+        List<ScoredRecipe> result = model.recommend(4, 5);
+
+        assertEquals(20, result.get(0).recipeId());
+        assertEquals(30, result.get(1).recipeId());
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void recommend_shouldNeverIncludeSavedRecipes() {
+        model.addSave(1, 10);
+        model.addSave(1, 20);
+        model.addSave(2, 10);
+        model.addSave(2, 20);
+
+        assertTrue(model.recommend(1, 5).isEmpty());
+    }
+
+    @Test
+    void removeSave_shouldUndoCoOccurrence() {
+        model.addSave(1, 10);
+        model.addSave(1, 20);
+        model.addSave(1, 20);
+        assertEquals(1, model.coOccurrence(10, 20));
+
+        model.removeSave(1, 20);
+
+        assertEquals(0, model.coOccurrence(10, 20));
+        assertEquals(0, model.coOccurrence(20, 10));
+    }
+
+    @Test
+    void removeRecipe_shouldDropItFromRecommendations() {
+        model.addSave(1, 10);
+        model.addSave(1, 20);
+        model.addSave(2, 10);
+
+        model.removeRecipe(20);
+
+        assertTrue(model.recommend(2, 5).isEmpty());
+    }
+
+    @Test
+    void rebuild_shouldMatchIncrementalUpdates() {
+        Random random = new Random(3);
+        Map<Integer, int[]> saves = new HashMap<>();
+        RecipeCoOccurrenceModel incremental = new RecipeCoOccurrenceModel();
+        for (int userId = 1; userId <= 300; userId++) {
+            int[] recipes = random.ints(1 + random.nextInt(8), 1, 60).distinct().toArray();
+            saves.put(userId, recipes);
+            for (int recipeId : recipes) {
+                incremental.addSave(userId, recipeId);
+            }
+        }
+
+        model.rebuild(saves);
+
+        for (int first = 1; first < 60; first++) {
+            for (int second = 1; second < 60; second++) {
+                assertEquals(incremental.coOccurrence(first, second),
+                        model.coOccurrence(first, second));
+            }
+        }
+        for (int userId = 1; userId <= 300; userId += 17) {
+            assertEquals(recipeIds(incremental.recommend(userId, 10)),
+                    recipeIds(model.recommend(userId, 10)));
+        }
+    }
+
+    private static List<Integer> recipeIds(List<ScoredRecipe> recipes) {
+        return recipes.stream().map(ScoredRecipe::recipeId).toList();
+    }
+}
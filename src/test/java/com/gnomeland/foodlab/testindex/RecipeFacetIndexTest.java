@@ -0,0 +1,168 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetQuery;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetResult;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.PreparationTimeBucket;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.ProteinBucket;
+import com.gnomeland.foodlab.model.Ingredient;
+import com.gnomeland.foodlab.model.Recipe;
+import com.gnomeland.foodlab.model.RecipeIngredient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeFacetIndexTest {
+
+    private RecipeFacetIndex index;
+    private Ingredient chicken;
+    private Ingredient rice;
+    private Ingredient tomato;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeFacetIndex();
+        chicken = ingredient(1, "Chicken", 25.0);
+        rice = ingredient(2, "Rice", 7.0);
+        tomato = ingredient(3, "Tomato", 1.0);
+    }
+
+    @Test
+    void search_shouldFilterByIngredientsAndCountFacets() {
+        index.update(recipe(1, "Chicken rice", 40, chicken, 200.0, rice, 100.0));
+        index.update(recipe(2, "Tomato salad", 10, tomato, 300.0));
+        index.update(recipe(3, "Chicken soup", 90, chicken, 50.0, tomato, 100.0));
+
+        FacetResult result = index.search(new FacetQuery(null, List.of(1), null, null), 10);
+
+        assertEquals(2, result.total());
+        assertEquals(List.of(1, 3), result.hitIds());
+        assertEquals(Map.of(1, 2, 2, 1, 3, 1), result.ingredientCounts());
+        assertEquals(1, result.preparationTimeCounts().get("30-60m"));
+        assertEquals(1, result.preparationTimeCounts().get("60-120m"));
+        assertEquals(0, result.preparationTimeCounts().get("under-15m"));
+        assertEquals(1, result.proteinCounts().get("over-40g"));
+        assertEquals(1, result.proteinCounts().get("10-20g"));
+    }
+
+    @Test
+    void search_shouldCombineBucketAndNameFilters() {
+        index.update(recipe(1, "Chicken rice", 40, chicken, 200.0, rice, 100.0));
+        index.update(recipe(2, "Chicken wrap", 45, chicken, 20.0));
+        index.update(recipe(3, "Rice bowl", 50, rice, 100.0));
+
+        FacetResult result = index.search(new FacetQuery("CHICKEN", List.of(),
+                PreparationTimeBucket.FROM_30_TO_60_MIN, ProteinBucket.UNDER_10_G), 10);
+
+        assertEquals(List.of(2), result.hitIds());
+        assertEquals(1, result.total());
+    }
+
+    @Test
+    void update_shouldMoveRecipeBetweenBuckets() {
+        index.update(recipe(1, "Chicken rice", 40, chicken, 200.0));
+        index.update(recipe(1, "Chicken rice", 10, rice, 10.0));
+
+        FacetResult result = index.search(new FacetQuery(null, List.of(), null, null), 10);
+
+        assertEquals(Map.of(2, 1), result.ingredientCounts());
+        assertEquals(1, result.preparationTimeCounts().get("under-15m"));
+        assertEquals(0, result.preparationTimeCounts().get("30-60m"));
+        assertEquals(1, result.proteinCounts().get("under-10g"));
+    }
+
+    @Test
+    void updateIngredientProteins_shouldRebucketAffectedRecipes() {
+        index.update(recipe(1, "Tomato salad", 10, tomato, 300.0));
+
+        index.updateIngredientProteins(3, 10.0);
+
+        FacetResult result = index.search(new FacetQuery(null, List.of(),
+                null, ProteinBucket.FROM_20_TO_40_G), 10);
+        assertEquals(List.of(1), result.hitIds());
+    }
+
+    @Test
+    void remove_shouldDropRecipeFromAllFacets() {
+        index.update(recipe(1, "Chicken rice", 40, chicken, 200.0));
+        index.update(recipe(2, "Tomato salad", 10, tomato, 300.0));
+
+        index.remove(1);
+
+        FacetResult result = index.search(new FacetQuery(null, List.of(), null, null), 10);
+        assertEquals(List.of(2), result.hitIds());
+        assertFalse(result.ingredientCounts().containsKey(1));
+        assertEquals(0, index.search(new FacetQuery(null, List.of(1), null, null), 10).total());
+    }
+
+    @Test
+    void search_shouldMatchBruteForceCounts() {
+        Random random = new Random(7);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            ingredients.add(ingredient(i, "Ingredient " + i, random.nextDouble() * 30));
+        }
+        List<Recipe> recipes = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            Recipe recipe = recipe(id, "Recipe " + id, random.nextInt(180));
+            for (int j = 0; j < 1 + random.nextInt(6); j++) {
+                addIngredient(recipe, ingredients.get(random.nextInt(ingredients.size())),
+                        random.nextDouble() * 200);
+            }
+            recipes.add(recipe);
+            index.update(recipe);
+        }
+
+        FacetResult result = index.search(new FacetQuery(null, List.of(5), null, null), 1000);
+
+        List<Recipe> expected = recipes.stream()
+                .filter(r -> r.getRecipeIngredients().stream()
+                        .anyMatch(ri -> ri.getIngredient().getId() == 5))
+                .toList();
+        assertEquals(expected.size(), result.total());
+        for (Ingredient ingredient : ingredients) {
+            long count = expected.stream()
+                    .filter(r -> r.getRecipeIngredients().stream()
+                            .anyMatch(ri -> ri.getIngredient().equals(ingredient)))
+                    .count();
+            assertEquals(count, (long) result.ingredientCounts().getOrDefault(ingredient.getId(), 0));
+        }
+        for (PreparationTimeBucket bucket : PreparationTimeBucket.values()) {
+            long count = expected.stream()
+                    .filter(r -> PreparationTimeBucket.of(r.getPreparationTime()) == bucket)
+                    .count();
+            assertEquals(count, (long) result.preparationTimeCounts().get(bucket.getLabel()));
+        }
+    }
+
+    private static Ingredient ingredient(int id, String name, double proteins) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        ingredient.setProteins(proteins);
+        return ingredient;
+    }
+
+    private static Recipe recipe(int id, String name, int minutes, Object... ingredientsAndGrams) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setName(name);
+        recipe.setPreparationTime(Duration.ofMinutes(minutes));
+        recipe.setRecipeIngredients(new ArrayList<>());
+        for (int i = 0; i < ingredientsAndGrams.length; i += 2) {
+            addIngredient(recipe, (Ingredient) ingredientsAndGrams[i],
+                    (Double) ingredientsAndGrams[i + 1]);
+        }
+        return recipe;
+    }
+
+    private static void addIngredient(Recipe recipe, Ingredient ingredient, double grams) {
+        RecipeIngredient recipeIngredient = new RecipeIngredient();
+        recipeIngredient.setRecipe(recipe);
+        recipeIngredient.setIngredient(ingredient);
+        recipeIngredient.setQuantityInGrams(grams);
+        recipe.getRecipeIngredients().add(recipeIngredient);
+    }
+}
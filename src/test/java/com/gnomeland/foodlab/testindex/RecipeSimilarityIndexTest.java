@@ -0,0 +1,132 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex;
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex.SimilarRecipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeSimilarityIndexTest {
+
+    private static final int TEMPLATES = 100;
+    private static final int RECIPES = 3000;
+    private static final int INGREDIENTS = 500;
+    private static final int TOP_K = 10;
+    private static final double RELEVANT_SIMILARITY = 0.6;
+
+    private RecipeSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSimilarityIndex();
+    }
+
+    @Test
+    void findSimilar_shouldRankByJaccardSimilarity() {
+        index.update(1, List.of(1, 2, 3, 4));
+        index.update(2, List.of(1, 2, 3, 4));
+        index.update(3, List.of(1, 2, 3, 5));
+        index.update(4, List.of(10, 11, 12));
+
+        List<SimilarRecipe> result = index.findSimilar(1, 5);
+
+        assertEquals(2, result.getFirst().recipeId());
+        assertEquals(1.0, result.getFirst().similarity());
+        assertTrue(result.stream().noneMatch(s -> s.recipeId() == 1 || s.recipeId() == 4));
+    }
+
+    @Test
+    void update_shouldReplaceOldSignature() {
+        index.update(1, List.of(1, 2, 3, 4));
+        index.update(2, List.of(1, 2, 3, 4));
+
+        index.update(2, List.of(20, 21, 22));
+
+        assertTrue(index.findSimilar(1, 5).isEmpty());
+    }
+
+    @Test
+    void remove_shouldDropRecipeFromResults() {
+        index.update(1, List.of(1, 2, 3));
+        index.update(2, List.of(1, 2, 3));
+
+        index.remove(2);
+
+        assertTrue(index.findSimilar(1, 5).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void findSimilar_shouldReturnEmpty_whenRecipeHasNoIngredients() {
+        index.update(1, List.of());
+
+        assertTrue(index.findSimilar(1, 5).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void findSimilar_shouldHaveHighRecallAgainstExactComputation() {
+        Random random = new Random(7);
+        Map<Integer, int[]> recipes = generateRecipes(random);
+        recipes.forEach((id, ingredients) ->
+                index.update(id, Arrays.stream(ingredients).boxed().toList()));
+
+        int relevantTotal = 0;
+        int relevantFound = 0;
+        for (int sample = 0; sample < 200; sample++) {
+            int queryId = 1 + random.nextInt(RECIPES);
+            List<Integer> exact = exactTopK(recipes, queryId);
+            Set<Integer> approximate = index.findSimilar(queryId, TOP_K).stream()
+                    .map(SimilarRecipe::recipeId)
+                    .collect(Collectors.toSet());
+
+            relevantTotal += exact.size();
+            relevantFound += (int) exact.stream().filter(approximate::contains).count();
+        }
+
+        assertTrue(relevantTotal > 0);
+        double recall = (double) relevantFound / relevantTotal;
+        assertTrue(recall >= 0.9, "Recall was " + recall);
+    }
+
+    private Map<Integer, int[]> generateRecipes(Random random) {
+        List<Set<Integer>> templates = new ArrayList<>();
+        for (int i = 0; i < TEMPLATES; i++) {
+            Set<Integer> template = new HashSet<>();
+            int size = 8 + random.nextInt(5);
+            while (template.size() < size) {
+                template.add(1 + random.nextInt(INGREDIENTS));
+            }
+            templates.add(template);
+        }
+
+        Map<Integer, int[]> recipes = new HashMap<>();
+        for (int id = 1; id <= RECIPES; id++) {
+            List<Integer> ingredients = new ArrayList<>(templates.get(random.nextInt(TEMPLATES)));
+            int mutations = random.nextInt(4);
+            for (int m = 0; m < mutations; m++) {
+                ingredients.set(random.nextInt(ingredients.size()),
+                        1 + random.nextInt(INGREDIENTS));
+            }
+            recipes.put(id, ingredients.stream().mapToInt(Integer::intValue)
+                    .distinct().sorted().toArray());
+        }
+        return recipes;
+    }
+
+    private List<Integer> exactTopK(Map<Integer, int[]> recipes, int queryId) {
+        int[] query = recipes.get(queryId);
+        return recipes.entrySet().stream()
+                .filter(e -> e.getKey() != queryId)
+                .map(e -> new SimilarRecipe(e.getKey(),
+                        RecipeSimilarityIndex.jaccard(query, e.getValue())))
+                .filter(s -> s.similarity() >= RELEVANT_SIMILARITY)
+                .sorted(Comparator.comparingDouble(SimilarRecipe::similarity).reversed()
+                        .thenComparing(SimilarRecipe::recipeId))
+                .limit(TOP_K)
+                .map(SimilarRecipe::recipeId)
+                .toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.gnomeland.foodlab.testindex;
+
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker.TrendingRecipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingRecipeTrackerTest {
+
+    private MutableClock clock;
+    private TrendingRecipeTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        tracker = new TrendingRecipeTracker(Duration.ofHours(1), clock);
+    }
+
+    @Test
+    void top_shouldRankByWeightedEvents() {
+        tracker.recordView(1);
+        tracker.recordView(1);
+        tracker.recordSave(2);
+        tracker.recordComment(3);
+
+        tracker.refreshLeaderboard();
+        List<TrendingRecipe> top = tracker.top(10);
+
+        assertEquals(List.of(2, 3, 1), top.stream().map(TrendingRecipe::recipeId).toList());
+        assertEquals(TrendingRecipeTracker.SAVE_WEIGHT, top.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void currentScore_shouldHalveAfterHalfLife() {
+        tracker.recordSave(1);
+
+        clock.advance(Duration.ofHours(1));
+
+        assertEquals(TrendingRecipeTracker.SAVE_WEIGHT / 2, tracker.currentScore(1), 1e-9);
+    }
+
+    @Test
+    void top_shouldPreferRecentActivity() {
+        tracker.recordSave(1);
+        clock.advance(Duration.ofHours(3));
+        tracker.recordView(2);
+        tracker.recordView(2);
+
+        tracker.refreshLeaderboard();
+
+        assertEquals(2, tracker.top(1).get(0).recipeId());
+    }
+
+    @Test
+    void top_shouldReturnLastSnapshotUntilRefreshed() {
+        tracker.recordView(1);
+
+        assertTrue(tracker.top(10).isEmpty());
+        tracker.refreshLeaderboard();
+        assertEquals(1, tracker.top(10).size());
+    }
+
+    @Test
+    void refreshLeaderboard_shouldSurviveLandmarkShift() {
+        tracker.recordSave(1);
+        clock.advance(Duration.ofHours(500));
+        tracker.recordSave(2);
+
+        tracker.refreshLeaderboard();
+
+        assertEquals(TrendingRecipeTracker.SAVE_WEIGHT, tracker.currentScore(2), 1e-6);
+        assertEquals(List.of(2), tracker.top(10).stream().map(TrendingRecipe::recipeId).toList());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
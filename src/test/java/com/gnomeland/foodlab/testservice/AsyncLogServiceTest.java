@@ -0,0 +1,252 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.exception.LogNotReadyException;
+import com.gnomeland.foodlab.exception.LogSpoolFullException;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.service.AsyncLogService;
+import com.gnomeland.foodlab.service.LogRangeReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLogServiceTest {
+
+    private static final String YESTERDAY = LocalDate.now().minusDays(1).toString();
+    private static final String TODAY = LocalDate.now().toString();
+    private static final String TODAY_LINE = TODAY + " 10:00:00 [main] INFO  Foo - new\n";
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private Path spoolDir;
+    private ManualExecutor executor;
+    private AsyncLogService asyncLogService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = dir.resolve("application.log");
+        spoolDir = dir.resolve("spool");
+        Files.writeString(logFile, TODAY_LINE);
+        try (GZIPOutputStream archive = new GZIPOutputStream(Files.newOutputStream(
+                dir.resolve("application.log." + YESTERDAY + ".0.gz")))) {
+            archive.write((YESTERDAY + " 10:00:00 [main] INFO  Foo - old\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        executor = new ManualExecutor();
+        asyncLogService = newService(false, 1024 * 1024);
+    }
+
+    @Test
+    void createLogTask_shouldShareRunningTaskForSameDate() {
+        String first = asyncLogService.createLogTask(TODAY);
+        String second = asyncLogService.createLogTask(TODAY);
+
+        assertNotEquals(first, second);
+        assertEquals(1, executor.pending.size());
+        assertThrows(LogNotReadyException.class, () -> asyncLogService.getLogFile(second));
+
+        executor.runAll();
+
+        assertSame(asyncLogService.getLogFile(first), asyncLogService.getLogFile(second));
+    }
+
+    @Test
+    void createLogTask_shouldReuseFinishedResultForPastDay() throws IOException {
+        String first = asyncLogService.createLogTask(YESTERDAY);
+        executor.runAll();
+
+        String second = asyncLogService.createLogTask(YESTERDAY);
+
+        assertTrue(executor.pending.isEmpty());
+        assertEquals(true, asyncLogService.getTaskStatus(second).get("isCompleted"));
+        assertEquals(YESTERDAY + " 10:00:00 [main] INFO  Foo - old\n",
+                Files.readString(asyncLogService.getLogFile(second).file()));
+        assertSame(asyncLogService.getLogFile(first), asyncLogService.getLogFile(second));
+    }
+
+    @Test
+    void createLogTask_shouldStartNewTaskForTodayOnceFinished() {
+        asyncLogService.createLogTask(TODAY);
+        executor.runAll();
+
+        asyncLogService.createLogTask(TODAY);
+
+        assertEquals(1, executor.pending.size());
+    }
+
+    @Test
+    void createLogTask_shouldRejectWhenQueueIsFull() {
+        executor.rejecting = true;
+
+        assertThrows(TooManyRequestsException.class,
+                () -> asyncLogService.createLogTask(TODAY));
+
+        executor.rejecting = false;
+        asyncLogService.createLogTask(TODAY);
+        assertEquals(1, executor.pending.size());
+    }
+
+    @Test
+    void getLogFile_shouldServeResultFromSpoolFile() throws IOException {
+        String taskId = asyncLogService.createLogTask(TODAY);
+        executor.runAll();
+
+        AsyncLogService.LogFileResult result = asyncLogService.getLogFile(taskId);
+
+        assertTrue(result.file().startsWith(spoolDir.toAbsolutePath()));
+        assertEquals(TODAY_LINE, Files.readString(result.file()));
+        assertEquals(TODAY_LINE.length(), result.getContentLength());
+        assertEquals(TODAY_LINE.length(), asyncLogService.getSpoolBytes());
+    }
+
+    @Test
+    void getLogFile_shouldGzipResult_whenCompressionIsEnabled() throws IOException {
+        asyncLogService = newService(true, 1024 * 1024);
+        String taskId = asyncLogService.createLogTask(TODAY);
+        executor.runAll();
+
+        AsyncLogService.LogFileResult result = asyncLogService.getLogFile(taskId);
+
+        assertTrue(result.compressed());
+        assertTrue(result.getFilename().endsWith(".log.gz"));
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(result.file()))) {
+            assertEquals(TODAY_LINE, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void createLogTask_shouldHandOutWholeArchivedDayAsIs() throws IOException {
+        asyncLogService = newService(true, 1);
+        String taskId = asyncLogService.createLogTask(YESTERDAY);
+
+        AsyncLogService.LogFileResult result = asyncLogService.getLogFile(taskId);
+
+        assertTrue(executor.pending.isEmpty());
+        assertEquals(dir.resolve("application.log." + YESTERDAY + ".0.gz"), result.file());
+        assertEquals("logs_" + YESTERDAY + ".log.gz", result.getFilename());
+        assertEquals(0, asyncLogService.getSpoolBytes());
+    }
+
+    @Test
+    void createLogTask_shouldRejectWhenSpoolQuotaIsTaken() throws IOException {
+        asyncLogService = newService(false, TODAY_LINE.length());
+        asyncLogService.createLogTask(TODAY);
+        executor.runAll();
+
+        assertThrows(TooManyRequestsException.class,
+                () -> asyncLogService.createLogTask(TODAY));
+    }
+
+    @Test
+    void createLogTask_shouldFailAndCleanUp_whenResultExceedsQuota() throws IOException {
+        asyncLogService = newService(false, TODAY_LINE.length() - 1);
+        String taskId = asyncLogService.createLogTask(TODAY);
+        executor.runAll();
+
+        assertThrows(LogSpoolFullException.class, () -> asyncLogService.getLogFile(taskId));
+        assertEquals(0, asyncLogService.getSpoolBytes());
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void getLogFile_shouldReportSaturatedReader_whenTaskFailedToOpenLogs() throws IOException {
+        ExecutorService readerPool = Executors.newFixedThreadPool(1);
+        readerPool.shutdown();
+        LogRangeReader reader = new LogRangeReader(logFile.toString(),
+                new LogOffsetIndex(logFile.toString()), readerPool, 31);
+        asyncLogService = new AsyncLogService(reader, executor, 2, spoolDir, false, 1024);
+        String taskId = asyncLogService.createLogTask(YESTERDAY);
+        executor.runAll();
+
+        assertThrows(TooManyRequestsException.class, () -> asyncLogService.getLogFile(taskId));
+    }
+
+    @Test
+    void createLogTask_shouldExportRangeInChronologicalOrder() throws IOException {
+        String taskId = asyncLogService.createLogTask(YESTERDAY, TODAY);
+        executor.runAll();
+
+        AsyncLogService.LogFileResult result = asyncLogService.getLogFile(taskId);
+
+        assertEquals("logs_" + YESTERDAY + "_" + TODAY + ".log", result.getFilename());
+        assertEquals(YESTERDAY + " 10:00:00 [main] INFO  Foo - old\n" + TODAY_LINE,
+                Files.readString(result.file()));
+    }
+
+    @Test
+    void createLogTask_shouldRejectReversedRange() {
+        assertThrows(BadRequestException.class,
+                () -> asyncLogService.createLogTask(TODAY, YESTERDAY));
+        assertTrue(executor.pending.isEmpty());
+    }
+
+    private AsyncLogService newService(boolean compress, long quotaBytes) throws IOException {
+        LogRangeReader reader = new LogRangeReader(logFile.toString(),
+                new LogOffsetIndex(logFile.toString()), Executors.newFixedThreadPool(2), 31);
+        return new AsyncLogService(reader, executor, 2, spoolDir, compress, quotaBytes);
+    }
+
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final List<Runnable> pending = new ArrayList<>();
+        private boolean rejecting;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting) {
+                throw new RejectedExecutionException("full");
+            }
+            pending.add(command);
+        }
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<>(pending);
+            pending.clear();
+            tasks.forEach(Runnable::run);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -4,11 +4,15 @@ import com.gnomeland.foodlab.dto.CommentDto;
 import com.gnomeland.foodlab.exception.CommentException;
 import com.gnomeland.foodlab.exception.RecipeException;
 import com.gnomeland.foodlab.exception.UserException;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
 import com.gnomeland.foodlab.model.Comment;
 import com.gnomeland.foodlab.repository.CommentRepository;
 import com.gnomeland.foodlab.repository.RecipeRepository;
 import com.gnomeland.foodlab.repository.UserRepository;
 import com.gnomeland.foodlab.service.CommentService;
+import com.gnomeland.foodlab.service.CommentWriteBehindService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -36,9 +40,23 @@ class CommentServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TrendingRecipeTracker trendingRecipeTracker;
+
+    @Mock
+    private CommentWriteBehindService commentWriteBehindService;
+
+    @Mock
+    private ExistenceIndex existenceIndex;
+
+    @Mock
+    private CommentHashWindow commentHashWindow;
+
     @InjectMocks
     private CommentService commentService;
 
+    private static final Long TEXT_HASH = CommentHashWindow.contentHash("Test comment");
+
     private CommentDto createTestCommentDto() {
         CommentDto dto = new CommentDto();
         dto.setId(1);
@@ -63,7 +81,7 @@ class CommentServiceTest {
         CommentDto commentDto = createTestCommentDto();
         when(recipeRepository.existsById(1)).thenReturn(true);
         when(userRepository.existsById(1)).thenReturn(true);
-        when(commentRepository.existsByUserIdAndRecipeIdAndText(1, 1, "Test comment")).thenReturn(false);
+        when(commentRepository.existsByRecipeIdAndUserIdAndTextHash(1, 1, TEXT_HASH)).thenReturn(false);
         when(commentRepository.save(any(Comment.class))).thenReturn(createTestComment());
 
         // Act
@@ -72,6 +90,65 @@ class CommentServiceTest {
         // Assert
         assertEquals("Comment created successfully", response.getBody());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(commentHashWindow).add(1, 1, TEXT_HASH);
+        verify(trendingRecipeTracker).recordComment(1);
+    }
+
+    @Test
+    void addComment_ShouldRejectBurstDuplicateFromHashWindowWithoutQuery() {
+        // Arrange
+        CommentDto commentDto = createTestCommentDto();
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(commentHashWindow.contains(1, 1, TEXT_HASH)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(CommentException.class, () -> commentService.addComment(commentDto));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void addComment_ShouldEnqueueWhenWriteBehindEnabled() {
+        // Arrange
+        CommentDto commentDto = createTestCommentDto();
+        when(commentWriteBehindService.isEnabled()).thenReturn(true);
+        when(commentWriteBehindService.enqueue(any(Comment.class))).thenReturn("tracking-1");
+
+        // Act
+        ResponseEntity<String> response = commentService.addComment(commentDto);
+
+        // Assert
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals("tracking-1", response.getBody());
+        verifyNoInteractions(recipeRepository, userRepository, commentRepository,
+                trendingRecipeTracker);
+    }
+
+    @Test
+    void addComment_ShouldSkipExistsQueriesWhenIndexKnowsIds() {
+        // Arrange
+        CommentDto commentDto = createTestCommentDto();
+        when(existenceIndex.isRecipePresent(1)).thenReturn(true);
+        when(existenceIndex.isUserPresent(1)).thenReturn(true);
+        when(commentRepository.existsByRecipeIdAndUserIdAndTextHash(1, 1, TEXT_HASH)).thenReturn(false);
+
+        // Act
+        commentService.addComment(commentDto);
+
+        // Assert
+        verify(commentRepository).save(any(Comment.class));
+        verifyNoInteractions(recipeRepository, userRepository);
+    }
+
+    @Test
+    void addComment_ShouldRejectKnownMissingRecipeWithoutQuery() {
+        // Arrange
+        CommentDto commentDto = createTestCommentDto();
+        when(existenceIndex.isRecipeAbsent(1)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(RecipeException.class, () -> commentService.addComment(commentDto));
+        verifyNoInteractions(recipeRepository, userRepository, commentRepository);
     }
 
     @Test
@@ -105,7 +182,7 @@ class CommentServiceTest {
         CommentDto commentDto = createTestCommentDto();
         when(recipeRepository.existsById(1)).thenReturn(true);
         when(userRepository.existsById(1)).thenReturn(true);
-        when(commentRepository.existsByUserIdAndRecipeIdAndText(1, 1, "Test comment")).thenReturn(true);
+        when(commentRepository.existsByRecipeIdAndUserIdAndTextHash(1, 1, TEXT_HASH)).thenReturn(true);
 
         // Act & Assert
         CommentException exception = assertThrows(CommentException.class,
@@ -182,6 +259,8 @@ class CommentServiceTest {
 
         // Assert
         assertEquals("Updated comment", result.getText());
+        assertEquals(CommentHashWindow.contentHash("Updated comment"),
+                existingComment.getTextHash());
         verify(commentRepository, times(1)).save(existingComment);
     }
 
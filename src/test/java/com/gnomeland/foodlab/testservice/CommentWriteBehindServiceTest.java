@@ -0,0 +1,141 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.dto.CommentWriteStatusDto;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
+import com.gnomeland.foodlab.model.Comment;
+import com.gnomeland.foodlab.repository.CommentBulkRepository;
+import com.gnomeland.foodlab.service.CommentWriteBehindService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentWriteBehindServiceTest {
+
+    @Mock
+    private CommentBulkRepository commentBulkRepository;
+
+    @Mock
+    private TrendingRecipeTracker trendingRecipeTracker;
+
+    @Mock
+    private CommentHashWindow commentHashWindow;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CommentWriteBehindService service(int capacity, int batchSize) {
+        return new CommentWriteBehindService(commentBulkRepository, trendingRecipeTracker,
+                commentHashWindow, transactionManager, true, capacity, batchSize);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldInsertValidCommentsInOneBatch() {
+        // Arrange
+        CommentWriteBehindService service = service(10, 10);
+        String valid = service.enqueue(comment(1, 1, "Tasty"));
+        String missingRecipe = service.enqueue(comment(1, 2, "Tasty"));
+        String storedDuplicate = service.enqueue(comment(1, 1, "Old"));
+        String batchDuplicate = service.enqueue(comment(1, 1, "Tasty"));
+        when(commentBulkRepository.findExistingRecipeIds(anyCollection())).thenReturn(Set.of(1));
+        when(commentBulkRepository.findExistingUserIds(anyCollection())).thenReturn(Set.of(1));
+        when(commentBulkRepository.findCandidateDuplicates(anyCollection()))
+                .thenReturn(List.of(comment(1, 1, "Old")));
+        ArgumentCaptor<List<Comment>> inserted = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        int written = service.flush();
+
+        // Assert
+        assertEquals(1, written);
+        verify(commentBulkRepository, times(1)).insertAll(inserted.capture());
+        assertEquals("Tasty", inserted.getValue().getFirst().getText());
+        verify(commentBulkRepository, times(1)).findExistingRecipeIds(anyCollection());
+        verify(trendingRecipeTracker, times(1)).recordComment(1);
+        verify(commentHashWindow).add(1, 1, CommentHashWindow.contentHash("Tasty"));
+        assertEquals("WRITTEN", service.getStatus(valid).getStatus());
+        CommentWriteStatusDto rejected = service.getStatus(missingRecipe);
+        assertEquals("REJECTED", rejected.getStatus());
+        assertEquals("The recipe was not found: 2", rejected.getMessage());
+        assertEquals("REJECTED", service.getStatus(storedDuplicate).getStatus());
+        assertEquals("Duplicate comment detected", service.getStatus(batchDuplicate).getMessage());
+    }
+
+    @Test
+    void flush_shouldSplitQueueIntoBatches() {
+        // Arrange
+        CommentWriteBehindService service = service(10, 2);
+        for (int i = 0; i < 5; i++) {
+            service.enqueue(comment(1, 1, "Comment " + i));
+        }
+        when(commentBulkRepository.findExistingRecipeIds(anyCollection())).thenReturn(Set.of(1));
+        when(commentBulkRepository.findExistingUserIds(anyCollection())).thenReturn(Set.of(1));
+
+        // Act
+        int written = service.flush();
+
+        // Assert
+        assertEquals(5, written);
+        verify(commentBulkRepository, times(3)).insertAll(anyList());
+    }
+
+    @Test
+    void enqueue_shouldRejectWhenQueueIsFull() {
+        // Arrange
+        CommentWriteBehindService service = service(2, 10);
+        service.enqueue(comment(1, 1, "First"));
+        service.enqueue(comment(1, 1, "Second"));
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class,
+                () -> service.enqueue(comment(1, 1, "Third")));
+        verifyNoInteractions(commentBulkRepository);
+    }
+
+    @Test
+    void shutdownWriter_shouldFlushQueuedComments() {
+        // Arrange
+        CommentWriteBehindService service = service(10, 10);
+        String trackingId = service.enqueue(comment(1, 1, "Last words"));
+        when(commentBulkRepository.findExistingRecipeIds(anyCollection())).thenReturn(Set.of(1));
+        when(commentBulkRepository.findExistingUserIds(anyCollection())).thenReturn(Set.of(1));
+
+        // Act
+        service.shutdownWriter();
+
+        // Assert
+        verify(commentBulkRepository).insertAll(anyList());
+        assertEquals("WRITTEN", service.getStatus(trackingId).getStatus());
+        assertThrows(TooManyRequestsException.class,
+                () -> service.enqueue(comment(1, 1, "Too late")));
+    }
+
+    @Test
+    void getStatus_shouldThrowForUnknownTrackingId() {
+        CommentWriteBehindService service = service(10, 10);
+
+        assertThrows(NoSuchElementException.class, () -> service.getStatus("missing"));
+    }
+
+    private static Comment comment(Integer userId, Integer recipeId, String text) {
+        Comment comment = new Comment();
+        comment.setUserId(userId);
+        comment.setRecipeId(recipeId);
+        comment.setText(text);
+        comment.setTextHash(CommentHashWindow.contentHash(text));
+        return comment;
+    }
+}
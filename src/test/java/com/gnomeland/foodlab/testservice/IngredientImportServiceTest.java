@@ -0,0 +1,141 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.cache.InMemoryCache;
+import com.gnomeland.foodlab.dto.ImportReportDto;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
+import com.gnomeland.foodlab.model.Ingredient;
+import com.gnomeland.foodlab.repository.IngredientBulkRepository;
+import com.gnomeland.foodlab.service.IngredientImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientImportServiceTest {
+
+    @Mock
+    private IngredientBulkRepository ingredientBulkRepository;
+
+    @Mock
+    private IngredientNameIndex ingredientNameIndex;
+
+    @Mock
+    private RecipeFacetIndex recipeFacetIndex;
+
+    @Mock
+    private InMemoryCache inMemoryCache;
+
+    @Mock
+    private ExistenceIndex existenceIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private IngredientImportService ingredientImportService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_shouldDedupeAndUpsertWithSetBasedStatements() throws IOException {
+        // Arrange
+        String csv = """
+                name,proteins,fats,carbohydrates
+                Tomato,0.9,0.2,3.9
+                tomato,1.1,0.2,3.9
+                Chicken,25,3,0
+                Bad,-1,0,0
+                "Salt, sea",0,0,0
+                """;
+        when(ingredientBulkRepository.findIdsByLowerCaseNames(anyCollection()))
+                .thenReturn(Map.of("chicken", 7))
+                .thenReturn(Map.of("tomato", 10, "salt, sea", 11));
+        ArgumentCaptor<List<Ingredient>> inserts = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Ingredient>> updates = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        ImportReportDto report = ingredientImportService.importCsv(new StringReader(csv));
+
+        // Assert
+        assertEquals(5, report.getProcessed());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(5L, report.getErrors().get(0).getRow());
+
+        verify(ingredientBulkRepository).insertAll(inserts.capture());
+        verify(ingredientBulkRepository).updateAll(updates.capture());
+        assertEquals(2, inserts.getValue().size());
+        assertEquals(1.1, inserts.getValue().get(0).getProteins());
+        assertEquals("Salt, sea", inserts.getValue().get(1).getName());
+        assertEquals(7, updates.getValue().get(0).getId());
+
+        verify(ingredientNameIndex).put(10, "tomato");
+        verify(ingredientNameIndex).put(11, "Salt, sea");
+        verify(recipeFacetIndex).updateIngredientProteins(7, 25.0);
+        verify(inMemoryCache).removeAll();
+    }
+
+    @Test
+    void importCsv_shouldWriteInChunks() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder();
+        int rows = IngredientImportService.IMPORT_CHUNK_SIZE * 2 + 100;
+        for (int i = 0; i < rows; i++) {
+            csv.append("Ingredient ").append(i).append(",1,1,1\n");
+        }
+        when(ingredientBulkRepository.findIdsByLowerCaseNames(anyCollection()))
+                .thenReturn(Map.of());
+
+        // Act
+        ImportReportDto report = ingredientImportService.importCsv(
+                new StringReader(csv.toString()));
+
+        // Assert
+        assertEquals(rows, report.getImported());
+        verify(ingredientBulkRepository, times(3)).insertAll(anyList());
+        verify(ingredientBulkRepository, times(6)).findIdsByLowerCaseNames(anyCollection());
+        verify(inMemoryCache, never()).removeAll();
+    }
+
+    @Test
+    void importCsv_shouldReportFailedChunkAndKeepCommittedOnes() throws IOException {
+        // Arrange
+        int chunkSize = IngredientImportService.IMPORT_CHUNK_SIZE;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < chunkSize * 2; i++) {
+            csv.append("Ingredient ").append(i).append(",1,1,1\n");
+        }
+        when(ingredientBulkRepository.findIdsByLowerCaseNames(anyCollection()))
+                .thenReturn(Map.of());
+        doNothing().doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(ingredientBulkRepository).insertAll(anyList());
+
+        // Act
+        ImportReportDto report = ingredientImportService.importCsv(
+                new StringReader(csv.toString()));
+
+        // Assert
+        assertTrue(report.isCompleted());
+        assertEquals(chunkSize, report.getImported());
+        assertEquals(chunkSize, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(chunkSize + 1L, report.getErrors().get(0).getRow());
+        assertEquals(chunkSize * 2L, report.getErrors().get(0).getLastRow());
+        verify(existenceIndex, times(chunkSize)).addIngredientName(anyString());
+    }
+}
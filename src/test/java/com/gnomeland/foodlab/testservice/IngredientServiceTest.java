@@ -4,6 +4,10 @@ import com.gnomeland.foodlab.cache.InMemoryCache;
 import com.gnomeland.foodlab.dto.IngredientDto;
 import com.gnomeland.foodlab.dto.RecipeIngredientDto;
 import com.gnomeland.foodlab.exception.IngredientException;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex;
+import com.gnomeland.foodlab.index.IngredientNameIndex.NameMatch;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
 import com.gnomeland.foodlab.model.Ingredient;
 import com.gnomeland.foodlab.model.Recipe;
 import com.gnomeland.foodlab.model.RecipeIngredient;
@@ -40,6 +44,15 @@ class IngredientServiceTest {
     @Mock
     private InMemoryCache inMemoryCache;
 
+    @Mock
+    private RecipeFacetIndex recipeFacetIndex;
+
+    @Mock
+    private IngredientNameIndex ingredientNameIndex;
+
+    @Mock
+    private ExistenceIndex existenceIndex;
+
     @InjectMocks
     private IngredientService ingredientService;
 
@@ -113,6 +126,35 @@ class IngredientServiceTest {
         assertThrows(IngredientException.class, () -> ingredientService.getIngredients("Unknown"));
     }
 
+    @Test
+    void getIngredients_FuzzyReturnsClosestMatches() {
+        // Arrange
+        Ingredient ingredient = createTestIngredient();
+        when(ingredientNameIndex.search("Test Ingrediant", IngredientNameIndex.MAX_DISTANCE))
+                .thenReturn(List.of(new NameMatch(1, "test ingredient", 1)));
+        when(ingredientRepository.findAllById(List.of(1))).thenReturn(List.of(ingredient));
+
+        // Act
+        List<IngredientDto> result = ingredientService.getIngredients("Test Ingrediant", true);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Test Ingredient", result.getFirst().getName());
+        verify(ingredientRepository, never()).findByNameIgnoreCase(anyString());
+    }
+
+    @Test
+    void getIngredients_FuzzyWithoutMatches() {
+        // Arrange
+        when(ingredientNameIndex.search("xyz", IngredientNameIndex.MAX_DISTANCE))
+                .thenReturn(List.of());
+        when(ingredientRepository.findAllById(List.of())).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IngredientException.class,
+                () -> ingredientService.getIngredients("xyz", true));
+    }
+
     @Test
     void getIngredientById_Success() {
         // Arrange
@@ -148,6 +190,22 @@ class IngredientServiceTest {
         // Assert
         assertNotNull(result);
         verify(ingredientRepository).save(any(Ingredient.class));
+        verify(ingredientNameIndex).put(1, "Test Ingredient");
+    }
+
+    @Test
+    void addIngredient_ShouldSkipLookupWhenFilterRulesNameOut() {
+        // Arrange
+        IngredientDto dto = createTestIngredientDto();
+        when(existenceIndex.isIngredientNameAbsent("Test Ingredient")).thenReturn(true);
+        when(ingredientRepository.save(any(Ingredient.class))).thenReturn(createTestIngredient());
+
+        // Act
+        ingredientService.addIngredient(dto);
+
+        // Assert
+        verify(ingredientRepository, never()).findByNameIgnoreCase(any());
+        verify(existenceIndex).addIngredientName("Test Ingredient");
     }
 
     @Test
@@ -176,6 +234,7 @@ class IngredientServiceTest {
         // Assert
         assertEquals("Updated Name", result.getName());
         verify(inMemoryCache, times(2)).remove(anyString());
+        verify(recipeFacetIndex).updateIngredientProteins(1, existing.getProteins());
     }
 
     @Test
@@ -0,0 +1,131 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.logging.LogLineLayout;
+import com.gnomeland.foodlab.service.LogQueryService;
+import com.gnomeland.foodlab.service.LogRangeReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogQueryServiceTest {
+
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    @TempDir
+    Path dir;
+
+    private LogQueryService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path logFile = dir.resolve("application.log");
+        archive("2025-03-01", 0, ""
+                + "2025-02-28 23:59:59 [main] ERROR c.g.f.service.Old - rolled late\n"
+                + "2025-03-01 09:00:00 [main] INFO  c.g.f.service.RecipeService - started\n"
+                + "2025-03-01 10:00:00 [http-1] ERROR c.g.f.service.RecipeService - failed\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n");
+        archive("2025-03-01", 1, ""
+                + "2025-03-01 11:00:00 [http-2] WARN  c.g.f.service.UserService - slow\n"
+                + "2025-03-01 12:00:00 [http-1] DEBUG c.g.f.service.UserService - details\n");
+        Files.writeString(logFile, ""
+                + "2025-03-02 08:00:00 [http-1] ERROR c.g.f.controllers.LogController - "
+                + "current\n"
+                + "2025-03-02 09:30:00 [main] INFO  c.g.f.service.RecipeService - later\n");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        LogRangeReader reader = new LogRangeReader(logFile.toString(),
+                new LogOffsetIndex(logFile.toString()), pool, 31);
+        service = new LogQueryService(reader, new LogOffsetIndex(logFile.toString()),
+                LogLineLayout.parse(PATTERN), pool, 2, 31, 100);
+    }
+
+    @Test
+    void query_shouldReturnEntriesAtOrAboveLevelWithContinuations() throws IOException {
+        assertEquals(""
+                + "2025-03-01 10:00:00 [http-1] ERROR c.g.f.service.RecipeService - failed\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n"
+                + "2025-03-01 11:00:00 [http-2] WARN  c.g.f.service.UserService - slow\n"
+                + "2025-03-02 08:00:00 [http-1] ERROR c.g.f.controllers.LogController - "
+                + "current\n",
+                query("2025-03-01T00:00:00", "2025-03-03T00:00:00", "warn", null, null, null,
+                        100));
+    }
+
+    @Test
+    void query_shouldFilterByLoggerThreadAndRegex() throws IOException {
+        assertEquals("2025-03-01 09:00:00 [main] INFO  c.g.f.service.RecipeService - started\n"
+                        + "2025-03-02 09:30:00 [main] INFO  c.g.f.service.RecipeService - later\n",
+                query("2025-03-01T00:00:00", "2025-03-03T00:00:00", null, "RecipeService",
+                        "main", null, 100));
+        assertTrue(query("2025-03-01T00:00:00", "2025-03-03T00:00:00", null, null, null,
+                "IllegalStateException", 100).startsWith("2025-03-01 10:00:00 [http-1]"));
+    }
+
+    @Test
+    void query_shouldKeepToTheTimeWindow() throws IOException {
+        assertEquals("2025-03-01 11:00:00 [http-2] WARN  c.g.f.service.UserService - slow\n"
+                        + "2025-03-01 12:00:00 [http-1] DEBUG c.g.f.service.UserService - "
+                        + "details\n",
+                query("2025-03-01T10:30:00", "2025-03-02T08:00:00", null, null, null, null,
+                        100));
+        assertEquals("2025-03-02 09:30:00 [main] INFO  c.g.f.service.RecipeService - later\n",
+                query("2025-03-02T09:00:00", "2025-03-02T09:45:00", null, null, null, null,
+                        100));
+    }
+
+    @Test
+    void query_shouldStopAtLimit() throws IOException {
+        assertEquals("2025-03-01 09:00:00 [main] INFO  c.g.f.service.RecipeService - started\n"
+                        + "2025-03-01 10:00:00 [http-1] ERROR c.g.f.service.RecipeService - "
+                        + "failed\n"
+                        + "java.lang.IllegalStateException: boom\n"
+                        + "\tat Foo.bar(Foo.java:1)\n",
+                query("2025-03-01T00:00:00", "2025-03-03T00:00:00", null, null, null, null, 2));
+    }
+
+    @Test
+    void parseQuery_shouldRejectInvalidParameters() {
+        String from = "2025-03-01T00:00:00";
+        String to = "2025-03-02T00:00:00";
+        assertThrows(BadRequestException.class,
+                () -> service.parseQuery(to, from, null, null, null, null, 10));
+        assertThrows(BadRequestException.class,
+                () -> service.parseQuery("2025-03-01", to, null, null, null, null, 10));
+        assertThrows(BadRequestException.class,
+                () -> service.parseQuery(from, to, "FATAL", null, null, null, 10));
+        assertThrows(BadRequestException.class,
+                () -> service.parseQuery(from, to, null, null, null, "(", 10));
+        assertThrows(BadRequestException.class,
+                () -> service.parseQuery(from, to, null, null, null, null, 101));
+        assertThrows(IllegalArgumentException.class, () -> LogLineLayout.parse("%msg%n"));
+    }
+
+    private void archive(String date, int part, String content) throws IOException {
+        Path archive = dir.resolve("application.log." + date + "." + part + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String query(String from, String to, String level, String loggerName,
+                         String thread, String regex, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.query(service.parseQuery(from, to, level, loggerName, thread, regex, limit),
+                out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
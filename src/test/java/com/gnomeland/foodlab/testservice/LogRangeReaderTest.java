@@ -0,0 +1,185 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.index.LogOffsetIndex;
+import com.gnomeland.foodlab.service.LogRangeReader;
+import com.gnomeland.foodlab.service.LogRangeReader.LogRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRangeReaderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private ExecutorService pool;
+    private LogRangeReader reader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = dir.resolve("application.log");
+        Files.writeString(logFile, DAY.plusDays(3) + " 08:00:00 [main] INFO  Foo - current\n");
+        pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16));
+        reader = new LogRangeReader(logFile.toString(), new LogOffsetIndex(logFile.toString()),
+                pool, 7);
+    }
+
+    @Test
+    void writeTo_shouldMergeDaysInChronologicalOrder() throws IOException {
+        archive(DAY, DAY.minusDays(1) + " 23:59:59 [main] INFO  Foo - rolled late\n"
+                + DAY + " 00:00:01 [main] ERROR Foo - failed\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n");
+        archive(DAY.plusDays(1), DAY.plusDays(1) + " 12:00:00 [main] INFO  Foo - second\n");
+
+        String result = read(reader.parseRange(DAY.toString(), DAY.plusDays(3).toString()));
+
+        assertEquals(DAY + " 00:00:01 [main] ERROR Foo - failed\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat Foo.bar(Foo.java:1)\n"
+                + DAY.plusDays(1) + " 12:00:00 [main] INFO  Foo - second\n"
+                + DAY.plusDays(3) + " 08:00:00 [main] INFO  Foo - current\n", result);
+    }
+
+    @Test
+    void writeTo_shouldKeepOrderForDaysLargerThanTheirBuffers() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int d = 0; d < 3; d++) {
+            StringBuilder day = new StringBuilder();
+            for (int i = 0; i < 20_000; i++) {
+                day.append(DAY.plusDays(d)).append(" 10:00:00 [main] INFO  Foo - line ")
+                        .append(i).append('\n');
+            }
+            archive(DAY.plusDays(d), day.toString());
+            expected.append(day);
+        }
+
+        String result = read(List.of(DAY, DAY.plusDays(1), DAY.plusDays(2)));
+
+        assertEquals(expected.toString(), result);
+    }
+
+    @Test
+    void writeTo_shouldReadAllRolledPartsInRollingOrder() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int part = 0; part <= 11; part++) {
+            String line = DAY + " 10:00:" + String.format("%02d", part)
+                    + " [main] INFO  Foo - part " + part + "\n";
+            archive(DAY, part, line + (part == 4 ? "\tat Foo.bar(Foo.java:1)\n" : ""));
+            expected.append(line);
+            if (part == 4) {
+                expected.append("\tat Foo.bar(Foo.java:1)\n");
+            }
+        }
+        archive(DAY, 12, "\tat Foo.baz(Foo.java:2)\n"
+                + DAY + " 23:00:00 [main] INFO  Foo - last part\n");
+        expected.append("\tat Foo.baz(Foo.java:2)\n")
+                .append(DAY).append(" 23:00:00 [main] INFO  Foo - last part\n");
+        Files.writeString(dir.resolve("application.log." + DAY + ".x.gz"), "not a part");
+
+        assertEquals(expected.toString(), read(List.of(DAY)));
+    }
+
+    @Test
+    void open_shouldOnlySubmitPartsWithinTheReadAheadWindow() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int d = 4; d < 9; d++) {
+            String line = DAY.plusDays(d) + " 10:00:00 [main] INFO  Foo - day " + d + "\n";
+            archive(DAY.plusDays(d), line);
+            expected.append(line);
+        }
+        List<LocalDate> days = reader.parseRange(DAY.plusDays(4).toString(),
+                DAY.plusDays(8).toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LogRange range = reader.open(days)) {
+            assertEquals(2, ((ThreadPoolExecutor) pool).getTaskCount());
+            range.writeTo(out);
+        }
+
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+        assertEquals(5, ((ThreadPoolExecutor) pool).getTaskCount());
+    }
+
+    @Test
+    void open_shouldReportEmptyRange_whenNoDayHasLogs() throws IOException {
+        try (LogRange range = reader.open(List.of(DAY))) {
+            assertTrue(range.isEmpty());
+        }
+    }
+
+    @Test
+    void open_shouldRejectWhenPoolIsSaturated() throws IOException {
+        pool.shutdown();
+        archive(DAY, DAY + " 10:00:00 [main] INFO  Foo - line\n");
+
+        assertThrows(TooManyRequestsException.class, () -> reader.open(List.of(DAY)));
+    }
+
+    @Test
+    void findWholeDayArchive_shouldOnlyReturnSinglePartStartingWithTheDay() throws IOException {
+        archive(DAY, DAY + " 00:00:01 [main] INFO  Foo - whole\n");
+        archive(DAY.plusDays(1), DAY + " 23:59:59 [main] INFO  Foo - rolled late\n"
+                + DAY.plusDays(1) + " 00:00:01 [main] INFO  Foo - next\n");
+        archive(DAY.plusDays(2), 0, DAY.plusDays(2) + " 10:00:00 [main] INFO  Foo - a\n");
+        archive(DAY.plusDays(2), 1, DAY.plusDays(2) + " 11:00:00 [main] INFO  Foo - b\n");
+        archive(DAY.plusDays(3), DAY.plusDays(3) + " 07:00:00 [main] INFO  Foo - early\n");
+
+        assertEquals(dir.resolve("application.log." + DAY + ".0.gz"),
+                reader.findWholeDayArchive(DAY).orElseThrow());
+        assertTrue(reader.findWholeDayArchive(DAY.plusDays(1)).isEmpty());
+        assertTrue(reader.findWholeDayArchive(DAY.plusDays(2)).isEmpty());
+        assertTrue(reader.findWholeDayArchive(DAY.plusDays(3)).isEmpty());
+        assertTrue(reader.findWholeDayArchive(DAY.plusDays(4)).isEmpty());
+    }
+
+    @Test
+    void parseRange_shouldRejectInvalidRanges() {
+        assertEquals(3, reader.parseRange("2025-03-01", "2025-03-03").size());
+        assertThrows(BadRequestException.class,
+                () -> reader.parseRange("2025-03-03", "2025-03-01"));
+        assertThrows(BadRequestException.class,
+                () -> reader.parseRange("2025-03-01", "2025-03-08"));
+        assertThrows(BadRequestException.class,
+                () -> reader.parseRange("2025-13-01", "2025-03-01"));
+    }
+
+    private void archive(LocalDate day, String content) throws IOException {
+        archive(day, 0, content);
+    }
+
+    private void archive(LocalDate day, int part, String content) throws IOException {
+        Path archive = dir.resolve("application.log." + day + "." + part + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String read(List<LocalDate> days) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LogRange range = reader.open(days)) {
+            range.writeTo(out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
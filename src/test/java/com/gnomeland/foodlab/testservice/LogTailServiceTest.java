@@ -0,0 +1,170 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.gnomeland.foodlab.exception.TooManyRequestsException;
+import com.gnomeland.foodlab.logging.LogLineLayout;
+import com.gnomeland.foodlab.service.LogEntryFilter;
+import com.gnomeland.foodlab.service.LogTailService;
+import com.gnomeland.foodlab.service.LogTailService.Subscription;
+import com.gnomeland.foodlab.service.LogTailService.TailListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTailServiceTest {
+
+    private static final LogLineLayout LAYOUT = LogLineLayout.parse(
+            "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+    private static final LogEntryFilter ALL = new LogEntryFilter(null, null, null, null);
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private LogTailService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = dir.resolve("application.log");
+        Files.writeString(logFile, "2025-03-01 09:00:00 [main] INFO  Foo - before\n");
+        service = new LogTailService(logFile, LAYOUT, Executors.newCachedThreadPool(), 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void subscribe_shouldFanOutNewLinesThroughEachFilter() throws Exception {
+        CollectingListener all = new CollectingListener();
+        CollectingListener warnings = new CollectingListener();
+        service.subscribe(ALL, all);
+        service.subscribe(new LogEntryFilter(List.of("WARN".getBytes(StandardCharsets.US_ASCII),
+                "ERROR".getBytes(StandardCharsets.US_ASCII)), null, null, null), warnings);
+        waitForFollower();
+
+        append("2025-03-01 10:00:00 [main] INFO  Foo - fine\n"
+                + "2025-03-01 10:00:01 [http-1] ERROR Foo - failed\n"
+                + "java.lang.IllegalStateException: boom\n");
+
+        assertEquals(List.of("2025-03-01 10:00:00 [main] INFO  Foo - fine",
+                "2025-03-01 10:00:01 [http-1] ERROR Foo - failed",
+                "java.lang.IllegalStateException: boom"), all.take(3));
+        assertEquals(List.of("2025-03-01 10:00:01 [http-1] ERROR Foo - failed",
+                "java.lang.IllegalStateException: boom"), warnings.take(2));
+    }
+
+    @Test
+    void subscribe_shouldWaitForTheEndOfALineAndFollowRollover() throws Exception {
+        CollectingListener listener = new CollectingListener();
+        service.subscribe(ALL, listener);
+        waitForFollower();
+
+        append("2025-03-01 10:00:00 [main] INFO  Foo - ha");
+        Thread.sleep(1500);
+        append("lf\n2025-03-01 23:59:59 [main] INFO  Foo - last\n");
+        assertEquals(List.of("2025-03-01 10:00:00 [main] INFO  Foo - half",
+                "2025-03-01 23:59:59 [main] INFO  Foo - last"), listener.take(2));
+
+        Path rolled = dir.resolve("application.log.2025-03-01.0");
+        Files.move(logFile, rolled);
+        Files.writeString(rolled, "2025-03-01 23:59:59 [main] INFO  Foo - before rollover\n",
+                StandardOpenOption.APPEND);
+        Files.writeString(logFile, "2025-03-02 00:00:01 [main] INFO  Foo - rolled\n");
+
+        assertEquals(List.of("2025-03-01 23:59:59 [main] INFO  Foo - before rollover",
+                "2025-03-02 00:00:01 [main] INFO  Foo - rolled"), listener.take(2));
+    }
+
+    @Test
+    void subscribe_shouldLimitViewersAndFreeSlotOnClose() {
+        Subscription first = service.subscribe(ALL, new CollectingListener());
+        service.subscribe(ALL, new CollectingListener());
+
+        assertThrows(TooManyRequestsException.class,
+                () -> service.subscribe(ALL, new CollectingListener()));
+
+        first.close();
+        first.close();
+        assertEquals(1, service.getSubscriberCount());
+        service.subscribe(ALL, new CollectingListener());
+    }
+
+    @Test
+    void subscribe_shouldDisconnectViewerThatFallsBehind() throws Exception {
+        service.shutdown();
+        service = new LogTailService(logFile, LAYOUT, Executors.newCachedThreadPool(), 2, 2);
+        CollectingListener stuck = new CollectingListener();
+        stuck.blocked = true;
+        service.subscribe(ALL, stuck);
+        waitForFollower();
+
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            lines.append("2025-03-01 10:00:0").append(i).append(" [main] INFO  Foo - x\n");
+        }
+        append(lines.toString());
+
+        assertNotNull(stuck.closed.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, service.getSubscriberCount());
+    }
+
+    private void append(String text) throws IOException {
+        Files.writeString(logFile, text, StandardOpenOption.APPEND);
+    }
+
+    private static void waitForFollower() throws InterruptedException {
+        // Поток слежения начинает с текущего конца файла
+        Thread.sleep(300);
+    }
+
+    private static final class CollectingListener implements TailListener {
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Boolean> closed = new LinkedBlockingQueue<>();
+        private volatile boolean blocked;
+
+        @Override
+        public void onLine(String line) throws IOException {
+            while (blocked) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            lines.add(line);
+        }
+
+        @Override
+        public void onHeartbeat() {
+        }
+
+        @Override
+        public void onClose() {
+            closed.add(true);
+        }
+
+        List<String> take(int count) throws InterruptedException {
+            List<String> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String line = lines.poll(5, TimeUnit.SECONDS);
+                assertNotNull(line, "line " + i);
+                taken.add(line);
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.gnomeland.foodlab.testservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gnomeland.foodlab.dto.ImportReportDto;
+import com.gnomeland.foodlab.dto.RecipeDto;
+import com.gnomeland.foodlab.exception.BadRequestException;
+import com.gnomeland.foodlab.exception.IngredientException;
+import com.gnomeland.foodlab.service.RecipeImportService;
+import com.gnomeland.foodlab.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeImportServiceTest {
+    private static final String VALID_RECIPE = "{\"name\":\"Soup\",\"preparationTime\":\"PT30M\"}";
+
+    @Mock
+    private RecipeService recipeService;
+
+    private RecipeImportService recipeImportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        recipeImportService = new RecipeImportService(recipeService, objectMapper);
+    }
+
+    @Test
+    void importRecipes_shouldImportValidRowsAndReportInvalidOnes() throws IOException {
+        // Arrange
+        String body = "[" + VALID_RECIPE + ",{\"name\":\"\",\"preparationTime\":\"PT30M\"},"
+                + "{\"name\":\"Stew\",\"preparationTime\":\"soon\"}," + VALID_RECIPE + "]";
+
+        // Act
+        ImportReportDto report = recipeImportService.importRecipes(stream(body));
+
+        // Assert
+        assertTrue(report.isCompleted());
+        assertEquals(4, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(1L, report.getErrors().get(0).getRow());
+        assertEquals(2L, report.getErrors().get(1).getRow());
+        verify(recipeService, times(1)).addRecipesBulk(anyList());
+    }
+
+    @Test
+    void importRecipes_shouldCommitInBoundedChunks() throws IOException {
+        // Arrange
+        int rows = RecipeImportService.IMPORT_CHUNK_SIZE * 2 + 200;
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(recipeService.addRecipesBulk(anyList())).thenAnswer(inv -> {
+            chunkSizes.add(inv.<List<RecipeDto>>getArgument(0).size());
+            return List.of();
+        });
+
+        // Act
+        ImportReportDto report = recipeImportService.importRecipes(stream(array(rows)));
+
+        // Assert
+        assertEquals(rows, report.getImported());
+        assertEquals(List.of(RecipeImportService.IMPORT_CHUNK_SIZE,
+                RecipeImportService.IMPORT_CHUNK_SIZE, 200), chunkSizes);
+    }
+
+    @Test
+    void importRecipes_shouldRetryFailedChunkRowByRow() throws IOException {
+        // Arrange
+        String bad = "{\"name\":\"Bad\",\"preparationTime\":\"PT30M\"}";
+        String body = "[" + VALID_RECIPE + "," + bad + "," + VALID_RECIPE + "]";
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(recipeService.addRecipesBulk(anyList())).thenAnswer(inv -> {
+            List<RecipeDto> chunk = inv.getArgument(0);
+            chunkSizes.add(chunk.size());
+            if (chunk.stream().anyMatch(dto -> dto.getName().equals("Bad"))) {
+                throw new IngredientException("The ingredient was not found: 7");
+            }
+            return List.of();
+        });
+
+        // Act
+        ImportReportDto report = recipeImportService.importRecipes(stream(body));
+
+        // Assert
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(1L, report.getErrors().get(0).getRow());
+        assertEquals("The ingredient was not found: 7", report.getErrors().get(0).getMessage());
+        assertEquals(List.of(3, 1, 1, 1), chunkSizes);
+    }
+
+    @Test
+    void importRecipes_shouldReportEveryRowOfFailedChunk() throws IOException {
+        // Arrange
+        when(recipeService.addRecipesBulk(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new IngredientException("The ingredient was not found: 7"));
+
+        // Act
+        ImportReportDto report = recipeImportService.importRecipes(
+                stream(array(RecipeImportService.IMPORT_CHUNK_SIZE + 10)));
+
+        // Assert
+        assertEquals(RecipeImportService.IMPORT_CHUNK_SIZE, report.getImported());
+        assertEquals(10, report.getFailed());
+        assertEquals((long) RecipeImportService.IMPORT_CHUNK_SIZE,
+                report.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void importRecipes_shouldKeepCommittedRows_whenJsonIsTruncated() throws IOException {
+        // Act
+        ImportReportDto report = recipeImportService.importRecipes(
+                stream("[" + VALID_RECIPE + "," + VALID_RECIPE + ",{\"name\":"));
+
+        // Assert
+        assertFalse(report.isCompleted());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void importRecipes_shouldRejectBodyThatIsNotArray() {
+        // Act & Assert
+        InputStream body = stream(VALID_RECIPE);
+        assertThrows(BadRequestException.class, () -> recipeImportService.importRecipes(body));
+        verifyNoInteractions(recipeService);
+    }
+
+    private static String array(int rows) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            builder.append(i == 0 ? "" : ",").append(VALID_RECIPE);
+        }
+        return builder.append(']').toString();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
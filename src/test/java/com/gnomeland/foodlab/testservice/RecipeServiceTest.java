@@ -3,9 +3,21 @@ package com.gnomeland.foodlab.testservice;
 import com.gnomeland.foodlab.cache.InMemoryCache;
 import com.gnomeland.foodlab.dto.*;
 import com.gnomeland.foodlab.exception.*;
+import com.gnomeland.foodlab.index.CommentHashWindow;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel;
+import com.gnomeland.foodlab.index.RecipeFacetIndex;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetQuery;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.FacetResult;
+import com.gnomeland.foodlab.index.RecipeFacetIndex.PreparationTimeBucket;
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex;
+import com.gnomeland.foodlab.index.RecipeSimilarityIndex.SimilarRecipe;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker;
+import com.gnomeland.foodlab.index.TrendingRecipeTracker.TrendingRecipe;
 import com.gnomeland.foodlab.model.*;
 import com.gnomeland.foodlab.repository.*;
 import com.gnomeland.foodlab.service.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,10 +26,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.time.Duration;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +47,36 @@ class RecipeServiceTest {
     @Mock
     private IngredientRepository ingredientRepository;
 
+    @Mock
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
     @Mock
     private InMemoryCache inMemoryCache;
 
+    @Mock
+    private RecipeSimilarityIndex recipeSimilarityIndex;
+
+    @Mock
+    private RecipeCoOccurrenceModel recipeCoOccurrenceModel;
+
+    @Mock
+    private TrendingRecipeTracker trendingRecipeTracker;
+
+    @Mock
+    private RecipeFacetIndex recipeFacetIndex;
+
+    @Mock
+    private ExistenceIndex existenceIndex;
+
+    @Mock
+    private CommentHashWindow commentHashWindow;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -148,42 +190,93 @@ class RecipeServiceTest {
     }
 
     @Test
-    void deleteRecipeById_shouldDeleteRecipeAndCleanRelations() {
+    void addRecipe_shouldPersistValidatedIngredients() {
         // Arrange
-        // Убедимся, что коллекции правильно инициализированы
-        user.getSavedRecipes().add(recipe); // Добавляем рецепт в savedRecipes
-        ingredient.getRecipeIngredients().add(recipeIngredient); // Добавляем связь
+        recipeDto.setRecipeIngredients(List.of(recipeIngredientDto(1, 100.0)));
+        when(ingredientRepository.findAllById(Set.of(1))).thenReturn(List.of(ingredient));
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        recipe.getUsers().add(user);
-        recipe.getRecipeIngredients().add(recipeIngredient);
+        // Act
+        RecipeDto result = recipeService.addRecipe(recipeDto);
 
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(ingredientRepository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
+        // Assert
+        assertNull(result.getId());
+        assertEquals(1, result.getRecipeIngredients().size());
+        assertEquals(100.0, result.getRecipeIngredients().get(0).getQuantityInGrams());
+        verify(inMemoryCache).remove("recipe_ingredient_Test Ingredient");
+    }
+
+    @Test
+    void addRecipe_shouldThrowException_whenIngredientMissing() {
+        // Arrange
+        recipeDto.setRecipeIngredients(List.of(recipeIngredientDto(99, 100.0)));
+        when(ingredientRepository.findAllById(Set.of(99))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IngredientException.class, () -> recipeService.addRecipe(recipeDto));
+        verify(recipeRepository, never()).save(any(Recipe.class));
+    }
+
+    @Test
+    void deleteRecipeById_shouldDeleteRecipeAndCleanRelations() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.findIngredientNamesByRecipeId(1))
+                .thenReturn(List.of("Test Ingredient"));
+        when(recipeRepository.deleteSavesByRecipeId(1)).thenReturn(100_000);
 
         // Act
         recipeService.deleteRecipeById(1);
 
         // Assert
-        verify(recipeRepository).deleteById(1);
-        verify(inMemoryCache).remove("recipe_ingredient_Test Ingredient");
-        verify(userRepository).save(user);
-        verify(ingredientRepository).save(ingredient);
+        verify(recipeRepository).deleteSavesByRecipeId(1);
+        verify(recipeIngredientRepository).deleteByRecipeId(1);
+        verify(commentRepository).deleteByRecipeId(1);
+        verify(recipeRepository).deleteRowById(1);
+        verify(inMemoryCache).removeAll(List.of("recipe_ingredient_Test Ingredient"));
+        verify(recipeFacetIndex).remove(1);
+        verify(existenceIndex).removeRecipe(1);
+        verify(commentHashWindow).removeRecipe(1);
+        verify(recipeCoOccurrenceModel).removeRecipe(1);
+        verify(recipeRepository, never()).findById(any());
+        verifyNoInteractions(userRepository, ingredientRepository);
+    }
 
-        // Дополнительные проверки состояния
-        assertFalse(user.getSavedRecipes().contains(recipe));
-        assertFalse(ingredient.getRecipeIngredients().contains(recipeIngredient));
+    @Test
+    void deleteRecipeById_shouldUpdateIndexesOnlyAfterCommit() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            recipeService.deleteRecipeById(1);
+
+            // Assert
+            verify(recipeRepository).deleteRowById(1);
+            verifyNoInteractions(existenceIndex, commentHashWindow, recipeSimilarityIndex,
+                    recipeFacetIndex, recipeCoOccurrenceModel, trendingRecipeTracker);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(existenceIndex).removeRecipe(1);
+        verify(trendingRecipeTracker).remove(1);
     }
 
     @Test
     void deleteRecipeById_shouldThrowException_whenRecipeNotFound() {
         // Arrange
-        when(recipeRepository.findById(1)).thenReturn(Optional.empty());
+        when(recipeRepository.existsById(1)).thenReturn(false);
 
         // Act & Assert
         assertThrows(RecipeException.class, () -> recipeService.deleteRecipeById(1));
+        verify(recipeRepository, never()).deleteRowById(any());
+        verifyNoInteractions(recipeIngredientRepository, commentRepository);
     }
 
+
     @Test
     void updateRecipe_shouldUpdateRecipeAndCleanCache() {
         // Arrange
@@ -197,7 +290,7 @@ class RecipeServiceTest {
         updatedDto.setRecipeIngredients(List.of(ingredientDto));
 
         when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(ingredientRepository.findById(1)).thenReturn(Optional.of(ingredient));
+        when(ingredientRepository.findAllById(Set.of(1))).thenReturn(List.of(ingredient));
         when(recipeRepository.save(any(Recipe.class))).thenReturn(recipe);
 
         // Act
@@ -206,7 +299,9 @@ class RecipeServiceTest {
         // Assert
         assertEquals("Updated Recipe", recipe.getName());
         assertEquals(1, recipe.getRecipeIngredients().size());
-        verify(inMemoryCache).remove("recipe_ingredient_Test Ingredient");
+        verify(inMemoryCache).removeAll(List.of("recipe_ingredient_Test Ingredient"));
+        verify(recipeIngredientRepository, never())
+                .deleteByRecipeIdAndIngredientIdNotIn(any(), any());
     }
 
     @Test
@@ -243,30 +338,79 @@ class RecipeServiceTest {
     @Test
     void addUserToRecipe_shouldAddUserToRecipe() {
         // Arrange
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
-        when(recipeRepository.save(recipe)).thenReturn(recipe);
-        when(userRepository.save(user)).thenReturn(user);
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.insertSave(1, 1)).thenReturn(1);
 
         // Act
         ResponseEntity<String> response = recipeService.addUserToRecipe(1, 1);
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        assertTrue(recipe.getUsers().contains(user));
-        assertTrue(user.getSavedRecipes().contains(recipe));
+        verify(recipeRepository, never()).findById(any());
+        verify(recipeRepository, never()).save(any());
+        verify(userRepository, never()).save(any());
+        verify(recipeCoOccurrenceModel).addSave(1, 1);
+        verify(trendingRecipeTracker).recordSave(1);
+    }
+
+    @Test
+    void addUserToRecipe_shouldNotRecordSave_whenTransactionDoesNotCommit() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.insertSave(1, 1)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            recipeService.addUserToRecipe(1, 1);
+        } finally {
+            // Откат: afterCommit не вызывается
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        verifyNoInteractions(recipeCoOccurrenceModel, trendingRecipeTracker);
     }
 
     @Test
     void addUserToRecipe_shouldThrowException_whenUserAlreadyAssociated() {
         // Arrange
-        recipe.getUsers().add(user);
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.insertSave(1, 1)).thenReturn(0);
 
         // Act & Assert
         assertThrows(UserAssociatedException.class,
                 () -> recipeService.addUserToRecipe(1, 1));
+        verifyNoInteractions(recipeCoOccurrenceModel, trendingRecipeTracker);
+    }
+
+    @Test
+    void addUserToRecipe_shouldSkipLookups_whenIndexKnowsBothIds() {
+        // Arrange
+        when(existenceIndex.isRecipePresent(1)).thenReturn(true);
+        when(existenceIndex.isUserPresent(1)).thenReturn(true);
+        when(recipeRepository.insertSave(1, 1)).thenReturn(1);
+
+        // Act
+        recipeService.addUserToRecipe(1, 1);
+
+        // Assert
+        verify(recipeRepository, never()).existsById(any());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void addUserToRecipe_shouldThrowException_whenUserNotFound() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(99)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UserException.class, () -> recipeService.addUserToRecipe(1, 99));
+        verify(recipeRepository, never()).insertSave(any(), any());
     }
 
     @Test
@@ -363,52 +507,48 @@ class RecipeServiceTest {
     @Test
     void deleteRecipeById_shouldHandleEmptyRelations() {
         // Arrange
-        recipe.setUsers(new ArrayList<>());
-        recipe.setRecipeIngredients(new ArrayList<>());
-
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.findIngredientNamesByRecipeId(1)).thenReturn(List.of());
 
         // Act
         recipeService.deleteRecipeById(1);
 
         // Assert
-        verify(recipeRepository).deleteById(1);
+        verify(recipeRepository).deleteRowById(1);
+        verify(inMemoryCache).removeAll(List.of());
         verifyNoInteractions(userRepository, ingredientRepository);
     }
 
     @Test
     void removeUserFromRecipe_shouldRemoveUserFromRecipe() {
         // Arrange
-        recipe.getUsers().add(user);
-        user.getSavedRecipes().add(recipe);
-
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
-        when(recipeRepository.save(recipe)).thenReturn(recipe);
-        when(userRepository.save(user)).thenReturn(user);
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.deleteSave(1, 1)).thenReturn(1);
 
         // Act
         ResponseEntity<Void> response = recipeService.removeUserFromRecipe(1, 1);
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        assertFalse(recipe.getUsers().contains(user));
-        assertFalse(user.getSavedRecipes().contains(recipe));
+        verify(recipeRepository, never()).save(any());
+        verify(userRepository, never()).save(any());
+        verify(recipeCoOccurrenceModel).removeSave(1, 1);
     }
 
     @Test
     void removeUserFromRecipe_shouldNotThrow_whenUserNotAssociated() {
         // Arrange
-        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
-        when(recipeRepository.save(recipe)).thenReturn(recipe);
-        when(userRepository.save(user)).thenReturn(user);
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.deleteSave(1, 1)).thenReturn(0);
 
         // Act
         ResponseEntity<Void> response = recipeService.removeUserFromRecipe(1, 1);
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verifyNoInteractions(recipeCoOccurrenceModel);
     }
 
     @Test
@@ -417,13 +557,12 @@ class RecipeServiceTest {
         RecipeDto recipeDto2 = new RecipeDto();
         recipeDto2.setName("Recipe 2");
 
-        when(recipeRepository.save(any(Recipe.class)))
-                .thenReturn(recipe)
-                .thenAnswer(inv -> {
-                    Recipe r = inv.getArgument(0);
-                    r.setId(2);
-                    return r;
-                });
+        when(recipeRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Recipe> recipes = inv.getArgument(0);
+            assertNull(recipes.get(0).getId());
+            recipes.get(1).setId(2);
+            return List.of(recipe, recipes.get(1));
+        });
 
         // Act
         List<RecipeDto> result = recipeService.addRecipesBulk(List.of(recipeDto, recipeDto2));
@@ -432,6 +571,78 @@ class RecipeServiceTest {
         assertEquals(2, result.size());
         assertEquals("Test Recipe", result.get(0).getName());
         assertEquals("Recipe 2", result.get(1).getName());
+        verify(recipeRepository, never()).save(any(Recipe.class));
+        verify(recipeRepository).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void addRecipesBulk_shouldPersistNestedIngredientsWithSingleLookup() {
+        // Arrange
+        Ingredient ingredient2 = new Ingredient();
+        ingredient2.setId(2);
+        ingredient2.setName("Ingredient 2");
+        RecipeDto recipeDto2 = new RecipeDto();
+        recipeDto2.setName("Recipe 2");
+        recipeDto2.setRecipeIngredients(List.of(recipeIngredientDto(1, 50.0),
+                recipeIngredientDto(2, 75.0)));
+        recipeDto.setRecipeIngredients(List.of(recipeIngredientDto(1, 100.0)));
+
+        when(ingredientRepository.findAllById(Set.of(1, 2)))
+                .thenReturn(List.of(ingredient, ingredient2));
+        when(recipeRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        List<RecipeDto> result = recipeService.addRecipesBulk(List.of(recipeDto, recipeDto2));
+
+        // Assert
+        assertEquals(1, result.get(0).getRecipeIngredients().size());
+        assertEquals(2, result.get(1).getRecipeIngredients().size());
+        assertEquals(75.0, result.get(1).getRecipeIngredients().get(1).getQuantityInGrams());
+        verify(ingredientRepository).findAllById(Set.of(1, 2));
+        verify(ingredientRepository, never()).findById(any());
+        verify(inMemoryCache).remove("recipe_ingredient_Test Ingredient");
+        verify(inMemoryCache).remove("recipe_ingredient_Ingredient 2");
+    }
+
+    @Test
+    void addRecipesBulk_shouldThrowException_whenIngredientMissing() {
+        // Arrange
+        recipeDto.setRecipeIngredients(List.of(recipeIngredientDto(99, 100.0)));
+        when(ingredientRepository.findAllById(Set.of(99))).thenReturn(List.of());
+
+        // Act & Assert
+        List<RecipeDto> dtos = List.of(recipeDto);
+        assertThrows(IngredientException.class, () -> recipeService.addRecipesBulk(dtos));
+        verify(recipeRepository, never()).saveAll(anyList());
+    }
+
+    private static RecipeIngredientDto recipeIngredientDto(Integer ingredientId, Double grams) {
+        RecipeIngredientDto dto = new RecipeIngredientDto();
+        dto.setIngredientId(ingredientId);
+        dto.setQuantityInGrams(grams);
+        return dto;
+    }
+
+    @Test
+    void addRecipesBulk_shouldFlushAndClearOncePerChunk() {
+        // Arrange
+        List<RecipeDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            RecipeDto dto = new RecipeDto();
+            dto.setName("Recipe " + i);
+            dtos.add(dto);
+        }
+        when(recipeRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        List<RecipeDto> result = recipeService.addRecipesBulk(dtos);
+
+        // Assert
+        assertEquals(120, result.size());
+        verify(recipeRepository, times(3)).saveAll(anyList());
+        verify(recipeRepository, times(3)).flush();
+        verify(entityManager, times(3)).clear();
     }
 
     @Test
@@ -535,7 +746,7 @@ class RecipeServiceTest {
         updatedDto.setRecipeIngredients(List.of(ingredientDto));
 
         when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        when(ingredientRepository.findById(1)).thenReturn(Optional.of(ingredient));
+        when(ingredientRepository.findAllById(Set.of(1))).thenReturn(List.of(ingredient));
         when(recipeRepository.save(recipe)).thenReturn(recipe);
 
         // Act
@@ -547,31 +758,98 @@ class RecipeServiceTest {
     }
 
     @Test
-    void deleteRecipeById_shouldHandleMultipleIngredients() {
+    void updateRecipe_shouldDiffIngredientsWithSetBasedStatements() {
         // Arrange
-        Ingredient ingredient2 = new Ingredient();
-        ingredient2.setId(2);
-        ingredient2.setName("Ingredient 2");
-        ingredient2.setRecipeIngredients(new ArrayList<>());
+        Ingredient second = new Ingredient();
+        second.setId(3);
+        second.setName("Second Ingredient");
+        Ingredient third = new Ingredient();
+        third.setId(4);
+        third.setName("Third Ingredient");
+        recipe.getRecipeIngredients().add(recipeIngredient);
 
-        RecipeIngredient ri2 = new RecipeIngredient();
-        ri2.setIngredient(ingredient2);
-        ri2.setRecipe(recipe);
+        RecipeDto updatedDto = new RecipeDto();
+        updatedDto.setRecipeIngredients(List.of(recipeIngredientDto(1, 150.0),
+                recipeIngredientDto(3, 50.0), recipeIngredientDto(4, 75.0)));
 
-        ingredient.setRecipeIngredients(new ArrayList<>());
-        recipe.getRecipeIngredients().add(recipeIngredient);
-        recipe.getRecipeIngredients().add(ri2);
+        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.findIngredientNamesByRecipeIdAndIngredientIdNotIn(1,
+                Set.of(1, 3, 4))).thenReturn(List.of("Old A", "Old B"));
+        when(recipeIngredientRepository.deleteByRecipeIdAndIngredientIdNotIn(1, Set.of(1, 3, 4)))
+                .thenReturn(2);
+        when(ingredientRepository.findAllById(Set.of(3, 4))).thenReturn(List.of(second, third));
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+
+        // Act
+        recipeService.updateRecipe(1, updatedDto);
+
+        // Assert
+        assertEquals(3, recipe.getRecipeIngredients().size());
+        assertEquals(150.0, recipe.getRecipeIngredients().getFirst().getQuantityInGrams());
+        verify(recipeIngredientRepository, times(1))
+                .deleteByRecipeIdAndIngredientIdNotIn(1, Set.of(1, 3, 4));
+        verify(ingredientRepository, times(1)).findAllById(Set.of(3, 4));
+        verify(recipeRepository, times(1)).save(recipe);
+        verify(inMemoryCache).removeAll(List.of("recipe_ingredient_Old A",
+                "recipe_ingredient_Old B", "recipe_ingredient_Test Ingredient",
+                "recipe_ingredient_Second Ingredient", "recipe_ingredient_Third Ingredient"));
+        verify(inMemoryCache, never()).removeAll();
+        verifyNoMoreInteractions(recipeIngredientRepository, ingredientRepository);
+    }
+
+    @Test
+    void updateRecipe_shouldDeleteAllIngredientsWithOneStatement_whenListIsEmpty() {
+        // Arrange
+        RecipeDto updatedDto = new RecipeDto();
+        updatedDto.setRecipeIngredients(List.of());
 
         when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
-        // Убираем ненужные стабы для save, так как они не используются в этом сценарии
+        when(recipeRepository.findIngredientNamesByRecipeId(1))
+                .thenReturn(List.of("Test Ingredient"));
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+
+        // Act
+        recipeService.updateRecipe(1, updatedDto);
+
+        // Assert
+        verify(recipeIngredientRepository).deleteByRecipeId(1);
+        verifyNoMoreInteractions(recipeIngredientRepository);
+        verifyNoInteractions(ingredientRepository);
+    }
+
+    @Test
+    void updateRecipe_shouldThrowWhenNewIngredientIsMissing() {
+        // Arrange
+        RecipeDto updatedDto = new RecipeDto();
+        updatedDto.setRecipeIngredients(List.of(recipeIngredientDto(7, 10.0)));
+
+        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
+        when(ingredientRepository.findAllById(Set.of(7))).thenReturn(List.of());
+
+        // Act & Assert
+        IngredientException exception = assertThrows(IngredientException.class,
+                () -> recipeService.updateRecipe(1, updatedDto));
+        assertTrue(exception.getMessage().endsWith("7"));
+        verify(recipeRepository, never()).save(any());
+        verifyNoInteractions(recipeSimilarityIndex, recipeFacetIndex);
+    }
+
+    @Test
+    void deleteRecipeById_shouldHandleMultipleIngredients() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.findIngredientNamesByRecipeId(1))
+                .thenReturn(List.of("Test Ingredient", "Ingredient 2"));
 
         // Act
         recipeService.deleteRecipeById(1);
 
         // Assert
-        verify(inMemoryCache).remove("recipe_ingredient_Test Ingredient");
-        verify(inMemoryCache).remove("recipe_ingredient_Ingredient 2");
-        verify(recipeRepository).deleteById(1);
+        verify(inMemoryCache, times(1)).removeAll(List.of("recipe_ingredient_Test Ingredient",
+                "recipe_ingredient_Ingredient 2"));
+        verify(inMemoryCache, never()).remove(anyString());
+        verify(recipeIngredientRepository, times(1)).deleteByRecipeId(1);
+        verify(recipeRepository).deleteRowById(1);
     }
 
     @Test
@@ -590,4 +868,108 @@ class RecipeServiceTest {
         assertEquals(Duration.ofHours(1), result.getPreparationTime());
         verify(inMemoryCache, never()).remove(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSimilarRecipes_shouldReturnRecipesInIndexOrder() {
+        // Arrange
+        Recipe recipe2 = new Recipe();
+        recipe2.setId(2);
+        recipe2.setName("Close Recipe");
+        Recipe recipe3 = new Recipe();
+        recipe3.setId(3);
+        recipe3.setName("Far Recipe");
+
+        when(recipeRepository.existsById(1)).thenReturn(true);
+        when(recipeSimilarityIndex.findSimilar(1, 5)).thenReturn(List.of(
+                new SimilarRecipe(2, 0.8), new SimilarRecipe(3, 0.4)));
+        when(recipeRepository.findAllById(List.of(2, 3))).thenReturn(List.of(recipe3, recipe2));
+
+        // Act
+        List<ScoredRecipeDto> result = recipeService.getSimilarRecipes(1, 5);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Close Recipe", result.get(0).getName());
+        assertEquals(0.8, result.get(0).getScore());
+        assertEquals("Far Recipe", result.get(1).getName());
+    }
+
+    @Test
+    void getSimilarRecipes_shouldThrowException_whenRecipeNotFound() {
+        // Arrange
+        when(recipeRepository.existsById(1)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(RecipeException.class, () -> recipeService.getSimilarRecipes(1, 5));
+        verifyNoInteractions(recipeSimilarityIndex);
+    }
+
+    @Test
+    void addIngredientToRecipe_shouldUpdateSimilarityIndex() {
+        // Arrange
+        when(recipeRepository.findById(1)).thenReturn(Optional.of(recipe));
+        when(ingredientRepository.findById(1)).thenReturn(Optional.of(ingredient));
+
+        // Act
+        recipeService.addIngredientToRecipe(1, 1, 100.0);
+
+        // Assert
+        verify(recipeSimilarityIndex).update(1, List.of(1));
+    }
+
+    @Test
+    void getTrendingRecipes_shouldReturnLeaderboardOrder() {
+        // Arrange
+        Recipe recipe2 = new Recipe();
+        recipe2.setId(2);
+        recipe2.setName("Hot Recipe");
+
+        when(trendingRecipeTracker.top(5)).thenReturn(List.of(
+                new TrendingRecipe(2, 12.5), new TrendingRecipe(1, 3.0)));
+        when(recipeRepository.findAllById(List.of(2, 1))).thenReturn(List.of(recipe, recipe2));
+
+        // Act
+        List<ScoredRecipeDto> result = recipeService.getTrendingRecipes(5);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Hot Recipe", result.get(0).getName());
+        assertEquals(12.5, result.get(0).getScore());
+        assertEquals("Test Recipe", result.get(1).getName());
+    }
+
+    @Test
+    void getTrendingRecipes_shouldThrowException_whenLimitInvalid() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> recipeService.getTrendingRecipes(0));
+        verifyNoInteractions(trendingRecipeTracker);
+    }
+
+    @Test
+    void searchRecipes_shouldReturnHitsAndFacetCounts() {
+        // Arrange
+        FacetQuery query = new FacetQuery(null, List.of(1),
+                PreparationTimeBucket.FROM_30_TO_60_MIN, null);
+        when(recipeFacetIndex.search(query, 20)).thenReturn(new FacetResult(1, List.of(1),
+                Map.of(1, 1), Map.of("30-60m", 1), Map.of("under-10g", 1)));
+        when(recipeRepository.findAllById(List.of(1))).thenReturn(List.of(recipe));
+
+        // Act
+        RecipeSearchResultDto result = recipeService.searchRecipes(null, List.of(1), "30-60m",
+                null, 20);
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals("Test Recipe", result.getRecipes().get(0).getName());
+        assertEquals(1, result.getIngredientCounts().get(1));
+        assertEquals(1, result.getPreparationTimeCounts().get("30-60m"));
+    }
+
+    @Test
+    void searchRecipes_shouldThrowException_whenBucketUnknown() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> recipeService.searchRecipes(null, null, "forever", null, 20));
+        verifyNoInteractions(recipeFacetIndex);
+    }
+}
@@ -2,6 +2,9 @@ package com.gnomeland.foodlab.testservice;
 
 import com.gnomeland.foodlab.dto.*;
 import com.gnomeland.foodlab.exception.*;
+import com.gnomeland.foodlab.index.ExistenceIndex;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel;
+import com.gnomeland.foodlab.index.RecipeCoOccurrenceModel.ScoredRecipe;
 import com.gnomeland.foodlab.model.*;
 import com.gnomeland.foodlab.repository.*;
 import com.gnomeland.foodlab.service.*;
@@ -24,6 +27,15 @@ class UserServiceTest {
     @Mock
     private RecipeRepository recipeRepository;
 
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private RecipeCoOccurrenceModel recipeCoOccurrenceModel;
+
+    @Mock
+    private ExistenceIndex existenceIndex;
+
     @InjectMocks
     private UserService userService;
 
@@ -157,6 +169,37 @@ class UserServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    void addUser_shouldSkipLookups_whenFiltersRuleNamesOut() {
+        // Arrange
+        when(existenceIndex.isUsernameAbsent("testuser")).thenReturn(true);
+        when(existenceIndex.isEmailAbsent("test@example.com")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // Act
+        userService.addUser(userDto);
+
+        // Assert
+        verify(userRepository, never()).findByUsernameIgnoreCase(anyString());
+        verify(userRepository, never()).findByEmailIgnoreCase(anyString());
+        verify(existenceIndex).addUser(1, "testuser", "test@example.com");
+    }
+
+    @Test
+    void rebuildExistenceIndex_shouldLoadIdentitiesAndMarkReady() {
+        // Arrange
+        List<Object[]> identities = new ArrayList<>();
+        identities.add(new Object[] {1, "testuser", "test@example.com"});
+        when(userRepository.findAllIdentities()).thenReturn(identities);
+
+        // Act
+        userService.rebuildExistenceIndex();
+
+        // Assert
+        verify(existenceIndex).addUser(1, "testuser", "test@example.com");
+        verify(existenceIndex).markUsersReady();
+    }
+
     @Test
     void addUser_shouldThrowException_whenUsernameExists() {
         // Arrange
@@ -180,31 +223,33 @@ class UserServiceTest {
     @Test
     void deleteUserById_shouldDeleteUserAndCleanRelations() {
         // Arrange
-        user.getSavedRecipes().add(recipe);
-        recipe.getUsers().add(user);
-
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
-        when(recipeRepository.save(recipe)).thenReturn(recipe);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.deleteSavesByUserId(1)).thenReturn(3);
 
         // Act
         ResponseEntity<String> response = userService.deleteUserById(1);
 
         // Assert
         assertEquals(204, response.getStatusCode().value());
-        verify(userRepository).deleteById(1);
-        verify(recipeRepository).save(recipe);
+        verify(recipeRepository).deleteSavesByUserId(1);
+        verify(commentRepository).deleteByUserId(1);
+        verify(userRepository).deleteRowById(1);
+        verify(existenceIndex).removeUser(1);
+        verify(userRepository, never()).findById(any());
+        verify(recipeRepository, never()).save(any());
+        verify(recipeCoOccurrenceModel).removeUser(1);
     }
 
     @Test
     void deleteUserById_shouldThrowException_whenUserNotFound() {
         // Arrange
-        when(userRepository.findById(1)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1)).thenReturn(false);
 
         // Act & Assert
         assertThrows(UserException.class, () -> userService.deleteUserById(1));
+        verifyNoInteractions(commentRepository);
     }
 
-    // Тесты для updateUser()
     @Test
     void updateUser_shouldUpdateAllFields() {
         // Arrange
@@ -351,5 +396,53 @@ class UserServiceTest {
     }
 
 
-}
 
+    @Test
+    void getRecommendations_shouldReturnRecipesInModelOrder() {
+        // Arrange
+        Recipe recipe2 = new Recipe();
+        recipe2.setId(2);
+        recipe2.setName("Second");
+        Recipe recipe3 = new Recipe();
+        recipe3.setId(3);
+        recipe3.setName("Third");
+
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.findSavedRecipeIdsByUserId(1)).thenReturn(List.of(1));
+        when(recipeCoOccurrenceModel.recommend(1, 5)).thenReturn(List.of(
+                new ScoredRecipe(3, 0.9), new ScoredRecipe(2, 0.5)));
+        when(recipeRepository.findAllById(List.of(3, 2))).thenReturn(List.of(recipe2, recipe3));
+
+        // Act
+        List<ScoredRecipeDto> result = userService.getRecommendations(1, 5);
+
+        // Assert
+        assertEquals(List.of("Third", "Second"),
+                result.stream().map(ScoredRecipeDto::getName).toList());
+    }
+
+    @Test
+    void getRecommendations_shouldExcludeAlreadySavedRecipes() {
+        // Arrange
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.findSavedRecipeIdsByUserId(1)).thenReturn(List.of(1));
+        when(recipeCoOccurrenceModel.recommend(1, 5))
+                .thenReturn(List.of(new ScoredRecipe(1, 0.9)));
+        when(recipeRepository.findAllById(List.of())).thenReturn(List.of());
+
+        // Act
+        List<ScoredRecipeDto> result = userService.getRecommendations(1, 5);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getRecommendations_shouldThrowException_whenUserNotFound() {
+        // Arrange
+        when(userRepository.existsById(1)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UserException.class, () -> userService.getRecommendations(1, 5));
+    }
+}